@@ -0,0 +1,3 @@
+package com.plazavea.plazavea.backend.cache;
+
+public record CacheInvalidation(String originNode, String cache, String key) {}
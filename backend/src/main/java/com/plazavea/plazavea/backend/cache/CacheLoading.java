@@ -0,0 +1,42 @@
+package com.plazavea.plazavea.backend.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Caffeine runs a synchronous loader inside ConcurrentHashMap.compute, whose monitor pins a virtual thread to
+// its carrier for the whole database call. Caches that load from the database hold futures instead: the map
+// only sees an empty future being installed and the loader runs outside it. Concurrent misses still share one
+// load, and an invalidation that lands mid-load drops the future, so that result reaches its callers uncached.
+public final class CacheLoading {
+
+    private CacheLoading() {
+    }
+
+    public static <K, V> V get(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future != created) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            V value = loader.get();
+            // a null value removes the entry, the same as a synchronous loader returning null
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.plazavea.plazavea.backend.cache;
+
+import java.util.function.Consumer;
+
+// Fan-out of invalidation messages to every node, including the sender. Delivery is best effort,
+// near-cache entries also expire on their own TTL.
+public interface InvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
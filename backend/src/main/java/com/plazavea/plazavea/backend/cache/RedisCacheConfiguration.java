@@ -0,0 +1,26 @@
+package com.plazavea.plazavea.backend.cache;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// The shared tier and the invalidation bus of a multi-node deployment, both on one Redis. Plain Lettuce rather
+// than Spring Data Redis, so nodes running the local backend get no Redis connection factory or health check.
+@Configuration
+@ConditionalOnProperty(name = "cache.shared.backend", havingValue = "redis")
+public class RedisCacheConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public RedisClient redisClient(@Value("${cache.shared.redis.url:redis://localhost:6379}") String url,
+                                   @Value("${cache.shared.redis.timeout:500ms}") Duration timeout) {
+        RedisURI uri = RedisURI.create(url);
+        // a slow Redis costs a near-cache miss at most this much before the loader runs
+        uri.setTimeout(timeout);
+        return RedisClient.create(uri);
+    }
+}
@@ -0,0 +1,104 @@
+package com.plazavea.plazavea.backend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Invalidations over Redis pub/sub. Delivery is asynchronous: publish returns before other nodes have acted, and
+// messages sent while a node is disconnected are lost to it. Lettuce resubscribes when the connection comes back.
+@Component
+@ConditionalOnProperty(name = "cache.shared.backend", havingValue = "redis")
+public class RedisInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisInvalidationBus.class);
+
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final StatefulRedisConnection<String, String> publisher;
+    private final StatefulRedisPubSubConnection<String, String> subscriber;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    // listeners reload state from the database, which must not happen on the Lettuce event loop;
+    // one thread keeps the messages in the order they were published
+    private final ExecutorService dispatcher =
+        Executors.newSingleThreadExecutor(Thread.ofPlatform().name("cache-invalidations").daemon(true).factory());
+
+    public RedisInvalidationBus(RedisClient redisClient,
+                                ObjectMapper objectMapper,
+                                @Value("${cache.shared.redis.channel:cache-invalidations}") String channel) {
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.publisher = redisClient.connect();
+        this.subscriber = redisClient.connectPubSub();
+        subscriber.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String from, String message) {
+                if (channel.equals(from)) {
+                    dispatcher.execute(() -> deliver(message));
+                }
+            }
+        });
+        subscriber.sync().subscribe(channel);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        String message;
+        try {
+            message = objectMapper.writeValueAsString(invalidation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        // not awaited, the caller is usually finishing a write; commands on one connection keep their order
+        publisher.async().publish(channel, message).whenComplete((receivers, e) -> {
+            if (e != null) {
+                log.warn("Could not publish invalidation of {} in {}", invalidation.key(), invalidation.cache(), e);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        subscriber.close();
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+        publisher.close();
+    }
+
+    private void deliver(String message) {
+        CacheInvalidation invalidation;
+        try {
+            invalidation = objectMapper.readValue(message, CacheInvalidation.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable invalidation message {}", message, e);
+            return;
+        }
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation listener failed for {} in {}", invalidation.key(), invalidation.cache(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.plazavea.plazavea.backend.cache;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Shared tier on Redis. An unreachable Redis turns reads into misses and skips writes, so the catalog keeps
+// answering from the database; a failed delete is logged because the stale entry then lives until its TTL.
+@Component
+@ConditionalOnProperty(name = "cache.shared.backend", havingValue = "redis")
+public class RedisSharedCache implements SharedCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSharedCache.class);
+
+    private final StatefulRedisConnection<String, byte[]> connection;
+    private final RedisCommands<String, byte[]> commands;
+    private final Counter errors;
+
+    public RedisSharedCache(RedisClient redisClient, MeterRegistry meterRegistry) {
+        // one multiplexed connection serves every thread
+        this.connection = redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        this.commands = connection.sync();
+        this.errors = Counter.builder("cache.shared.errors")
+            .description("Shared tier commands that failed or timed out")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return commands.get(key);
+        } catch (RedisException e) {
+            errors.increment();
+            log.debug("Shared cache read of {} failed", key, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration ttl) {
+        try {
+            commands.set(key, value, SetArgs.Builder.px(ttl));
+        } catch (RedisException e) {
+            errors.increment();
+            log.debug("Shared cache write of {} failed", key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            commands.del(key);
+        } catch (RedisException e) {
+            errors.increment();
+            log.warn("Could not delete {} from the shared cache", key, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        connection.close();
+    }
+}
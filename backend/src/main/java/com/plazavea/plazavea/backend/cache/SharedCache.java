@@ -0,0 +1,15 @@
+package com.plazavea.plazavea.backend.cache;
+
+import java.time.Duration;
+
+// The tier every backend node reads and writes; values are opaque bytes so a network store needs no codecs.
+// Implementations register as beans selected by cache.shared.backend.
+public interface SharedCache {
+
+    // null when absent or expired
+    byte[] get(String key);
+
+    void put(String key, byte[] value, Duration ttl);
+
+    void delete(String key);
+}
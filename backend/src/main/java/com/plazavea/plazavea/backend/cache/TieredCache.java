@@ -0,0 +1,116 @@
+package com.plazavea.plazavea.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Near cache in front of the shared tier. Reads go near -> shared -> loader, writes to the entity go
+// through invalidate(), which clears both tiers here and tells the other nodes to drop their copies.
+public class TieredCache<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredCache.class);
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final String name;
+    private final Class<V> type;
+    private final AsyncCache<String, V> near;
+    private final SharedCache shared;
+    private final Duration sharedTtl;
+    private final ObjectMapper objectMapper;
+    private final TieredCacheManager manager;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    // Moved by every invalidation of a key in the stripe, here or on another node. A load only leaves its value in
+    // the shared tier when its stripe stood still from before the database read until after the put; otherwise the
+    // value may predate the write and would be served to every node until the shared TTL.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    TieredCache(String name, Class<V> type, AsyncCache<String, V> near, SharedCache shared, Duration sharedTtl,
+                ObjectMapper objectMapper, TieredCacheManager manager, Counter sharedHits, Counter sharedMisses) {
+        this.name = name;
+        this.type = type;
+        this.near = near;
+        this.shared = shared;
+        this.sharedTtl = sharedTtl;
+        this.objectMapper = objectMapper;
+        this.manager = manager;
+        this.sharedHits = sharedHits;
+        this.sharedMisses = sharedMisses;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Absent values are not cached, so a lookup for an id that does not exist yet always reaches the loader
+    public Optional<V> get(Object key, Supplier<Optional<V>> loader) {
+        // each key is loaded once per node even when many requests miss together
+        String cacheKey = key.toString();
+        return Optional.ofNullable(CacheLoading.get(near, cacheKey, () -> load(cacheKey, loader)));
+    }
+
+    public void invalidate(Object key) {
+        String cacheKey = key.toString();
+        generations.incrementAndGet(stripe(cacheKey));
+        near.synchronous().invalidate(cacheKey);
+        shared.delete(sharedKey(cacheKey));
+        manager.publish(name, cacheKey);
+    }
+
+    // Another node changed the key. The shared entry is deleted here as well: a load on this node may have put a
+    // value read before that write after the other node had already deleted it.
+    void invalidateRemote(String key) {
+        generations.incrementAndGet(stripe(key));
+        near.synchronous().invalidate(key);
+        shared.delete(sharedKey(key));
+    }
+
+    private V load(String key, Supplier<Optional<V>> loader) {
+        String sharedKey = sharedKey(key);
+        int stripe = stripe(key);
+        long generation = generations.get(stripe);
+        byte[] bytes = shared.get(sharedKey);
+        if (bytes != null) {
+            try {
+                V value = objectMapper.readValue(bytes, type);
+                sharedHits.increment();
+                return value;
+            } catch (IOException e) {
+                log.warn("Dropping unreadable {} entry {} from the shared cache", name, key, e);
+                shared.delete(sharedKey);
+            }
+        }
+        sharedMisses.increment();
+
+        V value = loader.get().orElse(null);
+        if (value != null && generations.get(stripe) == generation) {
+            try {
+                shared.put(sharedKey, objectMapper.writeValueAsBytes(value), sharedTtl);
+            } catch (IOException e) {
+                log.warn("Could not write {} entry {} to the shared cache", name, key, e);
+            }
+            // an invalidation between the check and the put may have deleted before this write landed
+            if (generations.get(stripe) != generation) {
+                shared.delete(sharedKey);
+            }
+        }
+        return value;
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    private String sharedKey(String key) {
+        return name + ":" + key;
+    }
+}
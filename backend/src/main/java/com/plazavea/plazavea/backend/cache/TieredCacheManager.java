@@ -0,0 +1,115 @@
+package com.plazavea.plazavea.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Creates the named two-tier caches and routes invalidations coming from other nodes to them
+@Component
+public class TieredCacheManager {
+
+    private final SharedCache shared;
+    private final InvalidationBus bus;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final long nearMaximumSize;
+    private final Duration nearTtl;
+    private final Duration sharedTtl;
+    private final Map<String, TieredCache<?>> caches = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<String>>> remoteHooks = new ConcurrentHashMap<>();
+    private final Counter sent;
+    private final Counter received;
+
+    public TieredCacheManager(SharedCache shared,
+                              InvalidationBus bus,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${cache.node-id:}") String nodeId,
+                              @Value("${cache.near.maximum-size:10000}") long nearMaximumSize,
+                              @Value("${cache.near.ttl:30s}") Duration nearTtl,
+                              @Value("${cache.shared.ttl:10m}") Duration sharedTtl) {
+        this.shared = shared;
+        this.bus = bus;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.nearMaximumSize = nearMaximumSize;
+        this.nearTtl = nearTtl;
+        this.sharedTtl = sharedTtl;
+        this.sent = Counter.builder("cache.invalidations")
+            .description("Cache invalidation messages exchanged with other nodes")
+            .tag("direction", "sent")
+            .register(meterRegistry);
+        this.received = Counter.builder("cache.invalidations")
+            .description("Cache invalidation messages exchanged with other nodes")
+            .tag("direction", "received")
+            .register(meterRegistry);
+        bus.subscribe(this::onInvalidation);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> TieredCache<V> cache(String name, Class<V> type) {
+        return (TieredCache<V>) caches.computeIfAbsent(name, key -> {
+            AsyncCache<String, V> near = Caffeine.newBuilder()
+                .maximumSize(nearMaximumSize)
+                .expireAfterWrite(nearTtl)
+                .recordStats()
+                .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, near, name);
+            return new TieredCache<>(name, type, near, shared, sharedTtl, objectMapper, this,
+                sharedRequests(name, "hit"), sharedRequests(name, "miss"));
+        });
+    }
+
+    // Runs after the near copy is dropped when another node changes an entry of this cache,
+    // for state derived from it that has to follow along
+    public void onRemoteInvalidation(String cacheName, Consumer<String> hook) {
+        remoteHooks.computeIfAbsent(cacheName, key -> new CopyOnWriteArrayList<>()).add(hook);
+    }
+
+    // Also announces changes to state kept outside a TieredCache, other nodes receive it through their hooks
+    public void publish(String cacheName, String key) {
+        sent.increment();
+        bus.publish(new CacheInvalidation(nodeId, cacheName, key));
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.originNode())) {
+            return;
+        }
+        received.increment();
+        TieredCache<?> cache = caches.get(invalidation.cache());
+        if (cache != null) {
+            cache.invalidateRemote(invalidation.key());
+        }
+        for (Consumer<String> hook : remoteHooks.getOrDefault(invalidation.cache(), List.of())) {
+            hook.accept(invalidation.key());
+        }
+    }
+
+    private Counter sharedRequests(String name, String outcome) {
+        return Counter.builder("cache.shared.requests")
+            .description("Near-cache misses answered by the shared tier")
+            .tag("cache", name)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
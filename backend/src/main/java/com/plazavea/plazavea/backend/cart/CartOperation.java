@@ -0,0 +1,5 @@
+package com.plazavea.plazavea.backend.cart;
+
+// One step of a bulk cart update: "add" adds quantity to the product's line, "set" replaces it (0 removes the
+// line) and "remove" drops the line if the cart has one
+public record CartOperation(String op, Long productId, Integer quantity) {}
@@ -0,0 +1,6 @@
+package com.plazavea.plazavea.backend.cart;
+
+import com.plazavea.plazavea.backend.model.Cart;
+
+// totalCents is what checkout would charge today; savingsCents is the discount already included in it
+public record CartSummary(Cart cart, int itemCount, long totalCents, long savingsCents) {}
@@ -0,0 +1,136 @@
+package com.plazavea.plazavea.backend.cart;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The live state of one cart. Everything except the immutable fields is read and written under lock; a cart
+// that has been evicted must not be mutated, callers reload it instead.
+final class HotCart {
+
+    final long id;
+    final Long userId;
+    final ReentrantLock lock = new ReentrantLock();
+
+    // lines by product id, a product appears once per cart
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+    private final List<Long> removedItemIds = new ArrayList<>();
+    private LocalDateTime updatedAt;
+    private boolean dirty;
+    boolean evicted;
+    volatile long lastAccessNanos;
+
+    HotCart(long id, Long userId, LocalDateTime updatedAt, List<Line> lines) {
+        this.id = id;
+        this.userId = userId;
+        this.updatedAt = updatedAt;
+        for (Line line : lines) {
+            this.lines.put(line.productId, line);
+        }
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    Line lineForProduct(long productId) {
+        return lines.get(productId);
+    }
+
+    Line lineById(long itemId) {
+        for (Line line : lines.values()) {
+            if (line.itemId == itemId) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    // the row already exists, only the cart's updated_at is pending
+    void added(Line line) {
+        lines.put(line.productId, line);
+        dirty = true;
+    }
+
+    void setQuantity(Line line, int quantity) {
+        line.quantity = quantity;
+        line.dirty = true;
+        dirty = true;
+    }
+
+    void remove(Line line) {
+        lines.remove(line.productId);
+        removedItemIds.add(line.itemId);
+        dirty = true;
+    }
+
+    void clear() {
+        for (Line line : lines.values()) {
+            removedItemIds.add(line.itemId);
+        }
+        lines.clear();
+        dirty = true;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    LocalDateTime updatedAt() {
+        return updatedAt;
+    }
+
+    void flushed(LocalDateTime at) {
+        updatedAt = at;
+    }
+
+    List<Line> lines() {
+        List<Line> copy = new ArrayList<>(lines.size());
+        for (Line line : lines.values()) {
+            copy.add(new Line(line.itemId, line.productId, line.quantity));
+        }
+        return copy;
+    }
+
+    // Takes the pending writes; however many mutations happened, each line contributes its latest quantity once
+    Changes drain() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (Line line : lines.values()) {
+            if (line.dirty) {
+                quantities.put(line.itemId, line.quantity);
+                line.dirty = false;
+            }
+        }
+        Changes changes = new Changes(this, quantities, new ArrayList<>(removedItemIds));
+        removedItemIds.clear();
+        dirty = false;
+        return changes;
+    }
+
+    // Puts back writes that failed; a line changed since is already dirty and carries the newer quantity
+    void restore(Changes changes) {
+        for (Long itemId : changes.quantities().keySet()) {
+            Line line = lineById(itemId);
+            if (line != null) {
+                line.dirty = true;
+            }
+        }
+        removedItemIds.addAll(changes.removedItemIds());
+        dirty = true;
+    }
+
+    static final class Line {
+        final long itemId;
+        final long productId;
+        int quantity;
+        boolean dirty;
+
+        Line(long itemId, long productId, int quantity) {
+            this.itemId = itemId;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+
+    record Changes(HotCart cart, Map<Long, Integer> quantities, List<Long> removedItemIds) {}
+}
@@ -0,0 +1,769 @@
+package com.plazavea.plazavea.backend.cart;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plazavea.plazavea.backend.cache.CacheLoading;
+import com.plazavea.plazavea.backend.cache.TieredCacheManager;
+import com.plazavea.plazavea.backend.catalog.ProductCatalogCache;
+import com.plazavea.plazavea.backend.model.Cart;
+import com.plazavea.plazavea.backend.model.CartItem;
+import com.plazavea.plazavea.backend.model.Product;
+import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.repository.CartRepository;
+import com.plazavea.plazavea.backend.repository.ProductRepository;
+import com.plazavea.plazavea.backend.repository.UserRepository;
+import com.plazavea.plazavea.backend.user.UserCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Active carts live in memory and every mutation is applied to the cart under its own lock. Quantity changes,
+// removals and the cart's updated_at are written behind: dirty carts are flushed together every
+// carts.write-behind.interval, each line with its latest quantity however many times it changed. A product
+// new to the cart is inserted straight away because the response carries its cart_items id. Carts idle for
+// carts.idle-timeout are dropped once they have nothing left to write and reload from the database on next use.
+// One node holds a cart at a time, recorded in carts.held_by. A node claims the cart before reading it; when
+// another node holds it, the claim asks that node on the invalidation bus to write what is pending and release it,
+// and waits for the column to clear. A holder that does not answer within carts.handoff-timeout is taken over.
+// Writes are fenced by the column, so a node that lost a cart without hearing of it cannot overwrite the new
+// holder: its inserts and flushes are refused and it reloads. Routing a user's cart calls to one node keeps carts
+// from moving back and forth.
+@Component
+public class HotCartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(HotCartStore.class);
+
+    private static final String SELECT_CART_BY_ID = "SELECT id, user_id, updated_at FROM carts WHERE id = ?";
+    private static final String SELECT_CART_ID_BY_USER = "SELECT id FROM carts WHERE user_id = ? ORDER BY id";
+    private static final String SELECT_ITEMS = "SELECT id, product_id, quantity FROM cart_items WHERE cart_id = ? ORDER BY id";
+    // inserts nothing unless this node holds the cart
+    private static final String INSERT_ITEM =
+        "INSERT INTO cart_items (cart_id, product_id, quantity) SELECT id, ?, ? FROM carts WHERE id = ? AND held_by = ?";
+    private static final String UPDATE_QUANTITY = "UPDATE cart_items SET quantity = ? WHERE id = ?";
+    private static final String DELETE_ITEM = "DELETE FROM cart_items WHERE id = ?";
+    private static final String TOUCH_CART = "UPDATE carts SET updated_at = ? WHERE id = ?";
+    private static final String CLAIM_CART = "UPDATE carts SET held_by = ? WHERE id = ? AND (held_by IS NULL OR held_by = ?)";
+    private static final String TAKE_OVER_CART = "UPDATE carts SET held_by = ? WHERE id = ? AND held_by = ?";
+    private static final String SELECT_HOLDER = "SELECT held_by FROM carts WHERE id = ?";
+    private static final String RELEASE_CART = "UPDATE carts SET held_by = NULL WHERE id = ? AND held_by = ?";
+    private static final String RELEASE_ALL = "UPDATE carts SET held_by = NULL WHERE held_by = ?";
+    private static final String LOCK_HELD_CARTS = "SELECT id FROM carts WHERE held_by = ? AND id IN (%s) FOR UPDATE";
+
+    private static final String CARTS = "carts";
+
+    private static final long HANDOFF_POLL_MILLIS = 10;
+
+    private static final String OP_ADD = "add";
+    private static final String OP_SET = "set";
+    private static final String OP_REMOVE = "remove";
+
+    private static final RowMapper<HotCart.Line> LINE_MAPPER =
+        (rs, row) -> new HotCart.Line(rs.getLong("id"), rs.getLong("product_id"), rs.getInt("quantity"));
+
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ProductCatalogCache catalogCache;
+    private final UserCache userCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TieredCacheManager cacheManager;
+    private final TransactionTemplate writeTransaction;
+    private final AsyncCache<Long, HotCart> carts = Caffeine.newBuilder().buildAsync();
+    private final AsyncCache<Long, Long> cartIdsByUser = Caffeine.newBuilder().buildAsync();
+    private final Set<HotCart> dirtyCarts = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final int batchSize;
+    private final int maxOperations;
+    private final long idleTimeoutNanos;
+    private final long handoffTimeoutNanos;
+    private final String nodeId;
+    private final Counter flushedCarts;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+    private final Counter handoffs;
+    private final Counter takeovers;
+
+    public HotCartStore(CartRepository cartRepository,
+                        ProductRepository productRepository,
+                        UserRepository userRepository,
+                        ProductCatalogCache catalogCache,
+                        UserCache userCache,
+                        JdbcTemplate jdbcTemplate,
+                        TieredCacheManager cacheManager,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${carts.write-behind.batch-size:500}") int batchSize,
+                        @Value("${carts.bulk.max-operations:200}") int maxOperations,
+                        @Value("${carts.idle-timeout:30m}") Duration idleTimeout,
+                        @Value("${carts.handoff-timeout:2s}") Duration handoffTimeout) {
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.catalogCache = catalogCache;
+        this.userCache = userCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxOperations = maxOperations;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.handoffTimeoutNanos = handoffTimeout.toNanos();
+        this.nodeId = cacheManager.getNodeId();
+
+        this.flushedCarts = Counter.builder("carts.flushed")
+            .description("Carts written to the database by the write-behind flush")
+            .register(meterRegistry);
+        this.flushFailures = Counter.builder("carts.flush.failures")
+            .description("Write-behind batches that failed and were kept for the next flush")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("carts.flush")
+            .description("Time to write one batch of dirty carts")
+            .register(meterRegistry);
+        this.handoffs = Counter.builder("carts.handoffs")
+            .description("Carts released by the node holding them on request of this one")
+            .register(meterRegistry);
+        this.takeovers = Counter.builder("carts.takeovers")
+            .description("Carts taken from a node that did not release them within the handoff timeout")
+            .register(meterRegistry);
+        Gauge.builder("carts.hot", carts, cache -> cache.synchronous().estimatedSize())
+            .description("Carts held in memory")
+            .register(meterRegistry);
+        Gauge.builder("carts.dirty", dirtyCarts, Set::size)
+            .description("Carts with changes not yet written to the database")
+            .register(meterRegistry);
+
+        cacheManager.onRemoteInvalidation(CARTS, cartId -> release(Long.valueOf(cartId)));
+    }
+
+    public Optional<Cart> getCart(Long cartId) {
+        HotCart cart = load(cartId);
+        return cart != null ? Optional.of(view(cart)) : Optional.empty();
+    }
+
+    public Optional<Cart> getCartForUser(Long userId) {
+        Long cartId = CacheLoading.get(cartIdsByUser, userId, () -> findCartId(userId));
+        return cartId != null ? getCart(cartId) : Optional.empty();
+    }
+
+    // Concurrent calls for the same user share one lookup, so they end up with the same cart
+    public Optional<Cart> createCart(User user) {
+        Long cartId = CacheLoading.get(cartIdsByUser, user.getId(), () -> {
+            Long found = findCartId(user.getId());
+            if (found != null) {
+                return found;
+            }
+            Cart saved = cartRepository.save(new Cart(user));
+            // nobody else knows the cart yet
+            jdbcTemplate.update(CLAIM_CART, nodeId, saved.getId(), nodeId);
+            return register(new HotCart(saved.getId(), user.getId(), saved.getUpdatedAt(), List.of()));
+        });
+        return getCart(cartId);
+    }
+
+    public Optional<CartItem> addItem(Long cartId, Product product, int quantity) {
+        return mutate(cartId, cart -> {
+            HotCart.Line line = cart.lineForProduct(product.getId());
+            if (line != null) {
+                cart.setQuantity(line, Math.addExact(line.quantity, quantity));
+            } else {
+                line = new HotCart.Line(insertItem(cart.id, product.getId(), quantity), product.getId(), quantity);
+                cart.added(line);
+            }
+            return item(header(cart), line.itemId, product, line.quantity);
+        });
+    }
+
+    public Optional<CartItem> updateItem(Long cartId, Long itemId, int quantity) {
+        return mutate(cartId, cart -> {
+            HotCart.Line line = cart.lineById(itemId);
+            if (line == null) {
+                return null;
+            }
+            cart.setQuantity(line, quantity);
+            return item(header(cart), line.itemId, product(line.productId), line.quantity);
+        });
+    }
+
+    public boolean removeItem(Long cartId, Long itemId) {
+        return mutate(cartId, cart -> {
+            HotCart.Line line = cart.lineById(itemId);
+            if (line == null) {
+                return null;
+            }
+            cart.remove(line);
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    public boolean clear(Long cartId) {
+        return mutate(cartId, cart -> {
+            cart.clear();
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    // All operations are checked before any is applied, so a bad one leaves the cart untouched. However many
+    // operations there are: one product query, one batched insert for the products new to the cart, and the
+    // quantity changes and removals join the write-behind flush like any other mutation.
+    public Optional<CartSummary> apply(Long cartId, List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty() || operations.size() > maxOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Se requieren entre 1 y " + maxOperations + " operaciones");
+        }
+        for (CartOperation operation : operations) {
+            validate(operation);
+        }
+
+        return mutate(cartId, cart -> {
+            Set<Long> productIds = new HashSet<>();
+            for (CartOperation operation : operations) {
+                productIds.add(operation.productId());
+            }
+            for (HotCart.Line line : cart.lines()) {
+                productIds.add(line.productId);
+            }
+            Map<Long, Product> products = new HashMap<>();
+            for (Product product : productRepository.findAllById(productIds)) {
+                products.put(product.getId(), product);
+            }
+
+            // final quantity of every product the operations touch, 0 meaning no line
+            Map<Long, Integer> targets = new LinkedHashMap<>();
+            for (CartOperation operation : operations) {
+                Long productId = operation.productId();
+                String op = operation.op().toLowerCase(Locale.ROOT);
+                if (!op.equals(OP_REMOVE) && !products.containsKey(productId)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Producto no encontrado: " + productId);
+                }
+                int current = targets.computeIfAbsent(productId, id -> {
+                    HotCart.Line line = cart.lineForProduct(id);
+                    return line != null ? line.quantity : 0;
+                });
+                switch (op) {
+                    case OP_ADD -> targets.put(productId, Math.addExact(current, operation.quantity()));
+                    case OP_SET -> targets.put(productId, operation.quantity());
+                    default -> targets.put(productId, 0);
+                }
+            }
+
+            List<HotCart.Line> inserts = new ArrayList<>();
+            targets.forEach((productId, quantity) -> {
+                if (quantity > 0 && cart.lineForProduct(productId) == null) {
+                    inserts.add(new HotCart.Line(0, productId, quantity));
+                }
+            });
+            List<Long> insertedIds = insertItems(cart.id, inserts);
+
+            for (int i = 0; i < inserts.size(); i++) {
+                HotCart.Line line = inserts.get(i);
+                cart.added(new HotCart.Line(insertedIds.get(i), line.productId, line.quantity));
+            }
+            targets.forEach((productId, quantity) -> {
+                HotCart.Line line = cart.lineForProduct(productId);
+                if (line == null || line.quantity == quantity) {
+                    return;
+                }
+                if (quantity == 0) {
+                    cart.remove(line);
+                } else {
+                    cart.setQuantity(line, quantity);
+                }
+            });
+            return summary(cart, products);
+        });
+    }
+
+    // The cart goes with its user, pending writes are dropped so they cannot land after the delete
+    public void discardUser(Long userId) {
+        Long cartId = cartIdsByUser.synchronous().getIfPresent(userId);
+        cartIdsByUser.synchronous().invalidate(userId);
+        HotCart cart = cartId != null ? carts.synchronous().getIfPresent(cartId) : null;
+        if (cart == null) {
+            return;
+        }
+        cart.lock.lock();
+        try {
+            cart.evicted = true;
+            dirtyCarts.remove(cart);
+            carts.synchronous().asMap().remove(cart.id, cart);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    // Writes what is pending and releases every cart, so the next node to load one need not wait for this one
+    @PreDestroy
+    public void stop() {
+        flush();
+        jdbcTemplate.update(RELEASE_ALL, nodeId);
+    }
+
+    @Scheduled(fixedDelayString = "${carts.write-behind.interval:2s}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<HotCart.Changes> batch = new ArrayList<>();
+            for (HotCart cart : dirtyCarts) {
+                dirtyCarts.remove(cart);
+                cart.lock.lock();
+                try {
+                    if (!cart.evicted && cart.isDirty()) {
+                        batch.add(cart.drain());
+                    }
+                } finally {
+                    cart.lock.unlock();
+                }
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+            evictIdle();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<HotCart.Changes> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> held = new HashSet<>();
+        try {
+            flushTimer.record(() -> writeTransaction.executeWithoutResult(status -> {
+                // the cart rows stay locked until commit, a takeover either waits for this write or comes first
+                // and the cart is skipped
+                held.clear();
+                held.addAll(lockHeldCarts(batch));
+                List<Object[]> quantities = new ArrayList<>();
+                List<Object[]> removals = new ArrayList<>();
+                List<Object[]> touches = new ArrayList<>(held.size());
+                for (HotCart.Changes changes : batch) {
+                    if (!held.contains(changes.cart().id)) {
+                        continue;
+                    }
+                    changes.quantities().forEach((itemId, quantity) -> quantities.add(new Object[] {quantity, itemId}));
+                    for (Long itemId : changes.removedItemIds()) {
+                        removals.add(new Object[] {itemId});
+                    }
+                    touches.add(new Object[] {Timestamp.valueOf(now), changes.cart().id});
+                }
+                if (!quantities.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_QUANTITY, quantities);
+                }
+                if (!removals.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_ITEM, removals);
+                }
+                if (!touches.isEmpty()) {
+                    jdbcTemplate.batchUpdate(TOUCH_CART, touches);
+                }
+            }));
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            log.warn("Could not write {} carts, keeping their changes for the next flush", batch.size(), e);
+            for (HotCart.Changes changes : batch) {
+                HotCart cart = changes.cart();
+                cart.lock.lock();
+                try {
+                    if (!cart.evicted) {
+                        cart.restore(changes);
+                        dirtyCarts.add(cart);
+                    }
+                } finally {
+                    cart.lock.unlock();
+                }
+            }
+            return;
+        }
+
+        flushedCarts.increment(held.size());
+        for (HotCart.Changes changes : batch) {
+            HotCart cart = changes.cart();
+            cart.lock.lock();
+            try {
+                if (held.contains(cart.id)) {
+                    cart.flushed(now);
+                } else {
+                    log.error("Dropping unwritten changes of cart {}, another node took it over", cart.id);
+                    drop(cart);
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    private List<Long> lockHeldCarts(List<HotCart.Changes> batch) {
+        Object[] args = new Object[batch.size() + 1];
+        args[0] = nodeId;
+        for (int i = 0; i < batch.size(); i++) {
+            args[i + 1] = batch.get(i).cart().id;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+        return jdbcTemplate.queryForList(LOCK_HELD_CARTS.formatted(placeholders), Long.class, args);
+    }
+
+    // Another node wants the cart. Whatever is pending here is written, a flush already under way included, the
+    // copy is dropped so the next call here claims it again, and only then is the column cleared. When the write
+    // fails the cart is kept; the other node takes it over after its timeout and the write here is refused.
+    private void release(Long cartId) {
+        HotCart cart = carts.synchronous().getIfPresent(cartId);
+        if (cart != null) {
+            flushLock.lock();
+            try {
+                cart.lock.lock();
+                try {
+                    if (!cart.evicted) {
+                        dirtyCarts.remove(cart);
+                        if (cart.isDirty()) {
+                            write(List.of(cart.drain()));
+                        }
+                        if (cart.isDirty()) {
+                            dirtyCarts.add(cart);
+                            return;
+                        }
+                        drop(cart);
+                    }
+                } finally {
+                    cart.lock.unlock();
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        // also when the copy was already gone, an idle eviction may not have released it
+        if (jdbcTemplate.update(RELEASE_CART, cartId, nodeId) > 0) {
+            handoffs.increment();
+        }
+    }
+
+    // Caller holds cart.lock
+    private void drop(HotCart cart) {
+        cart.evicted = true;
+        dirtyCarts.remove(cart);
+        carts.synchronous().asMap().remove(cart.id, cart);
+        if (cart.userId != null) {
+            cartIdsByUser.synchronous().asMap().remove(cart.userId, cart.id);
+        }
+    }
+
+    // Runs right after a flush, so an idle cart normally has nothing pending; one that still has is kept
+    private void evictIdle() {
+        long now = System.nanoTime();
+        List<Object[]> released = new ArrayList<>();
+        for (HotCart cart : carts.synchronous().asMap().values()) {
+            if (now - cart.lastAccessNanos < idleTimeoutNanos) {
+                continue;
+            }
+            cart.lock.lock();
+            try {
+                if (cart.evicted || cart.isDirty() || now - cart.lastAccessNanos < idleTimeoutNanos) {
+                    continue;
+                }
+                drop(cart);
+                released.add(new Object[] {cart.id, nodeId});
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+        if (!released.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(RELEASE_CART, released);
+            } catch (RuntimeException e) {
+                // the carts stay claimed, another node asks for them and this one releases them then
+                log.warn("Could not release {} idle carts", released.size(), e);
+            }
+        }
+    }
+
+    private <T> Optional<T> mutate(Long cartId, Function<HotCart, T> mutation) {
+        while (true) {
+            HotCart cart = load(cartId);
+            if (cart == null) {
+                return Optional.empty();
+            }
+            cart.lock.lock();
+            try {
+                // evicted between the lookup and the lock, the next lookup reloads it
+                if (cart.evicted) {
+                    continue;
+                }
+                T result = mutation.apply(cart);
+                if (cart.isDirty()) {
+                    dirtyCarts.add(cart);
+                }
+                return Optional.ofNullable(result);
+            } catch (CartMovedException e) {
+                // taken over without this node hearing of it; what is pending here can no longer be written
+                if (cart.isDirty()) {
+                    log.error("Dropping unwritten changes of cart {}, another node took it over", cart.id);
+                }
+                drop(cart);
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    private HotCart load(Long cartId) {
+        HotCart cart = CacheLoading.get(carts, cartId, () -> {
+            if (!claim(cartId)) {
+                return null;
+            }
+            List<HotCart> found = jdbcTemplate.query(SELECT_CART_BY_ID, this::mapCart, cartId);
+            if (found.isEmpty()) {
+                return null;
+            }
+            HotCart loaded = found.get(0);
+            if (loaded.userId != null) {
+                cartIdsByUser.synchronous().asMap().putIfAbsent(loaded.userId, loaded.id);
+            }
+            return loaded;
+        });
+        if (cart != null) {
+            cart.lastAccessNanos = System.nanoTime();
+        }
+        return cart;
+    }
+
+    // False when there is no such cart. Once this returns true the previous holder has written everything it will
+    // ever write, or its later writes are refused.
+    private boolean claim(Long cartId) {
+        long deadline = System.nanoTime() + handoffTimeoutNanos;
+        boolean requested = false;
+        while (true) {
+            if (jdbcTemplate.update(CLAIM_CART, nodeId, cartId, nodeId) > 0) {
+                return true;
+            }
+            List<String> holders = jdbcTemplate.queryForList(SELECT_HOLDER, String.class, cartId);
+            if (holders.isEmpty()) {
+                return false;
+            }
+            String holder = holders.get(0);
+            if (holder == null) {
+                // released in between
+                continue;
+            }
+            if (!requested) {
+                cacheManager.publish(CARTS, cartId.toString());
+                requested = true;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                // the holder is down or missed the request
+                if (jdbcTemplate.update(TAKE_OVER_CART, nodeId, cartId, holder) > 0) {
+                    takeovers.increment();
+                    log.warn("Took cart {} over from node {}, which did not release it", cartId, holder);
+                    return true;
+                }
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "El carrito está en uso, intente nuevamente");
+            }
+            try {
+                Thread.sleep(HANDOFF_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "El carrito está en uso, intente nuevamente");
+            }
+        }
+    }
+
+    // A cart already in memory wins over the one just created
+    private Long register(HotCart cart) {
+        return CacheLoading.get(carts, cart.id, () -> cart).id;
+    }
+
+    private Long findCartId(Long userId) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_CART_ID_BY_USER, Long.class, userId);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    private HotCart mapCart(ResultSet rs, int row) throws SQLException {
+        long id = rs.getLong("id");
+        long userId = rs.getLong("user_id");
+        Long owner = rs.wasNull() ? null : userId;
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new HotCart(id, owner, updatedAt != null ? updatedAt.toLocalDateTime() : null,
+            jdbcTemplate.query(SELECT_ITEMS, LINE_MAPPER, id));
+    }
+
+    private long insertItem(long cartId, long productId, int quantity) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        int rows = jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_ITEM, new String[] {"id"});
+            ps.setLong(1, productId);
+            ps.setInt(2, quantity);
+            ps.setLong(3, cartId);
+            ps.setString(4, nodeId);
+            return ps;
+        }, keys);
+        if (rows == 0) {
+            throw new CartMovedException();
+        }
+        return keys.getKey().longValue();
+    }
+
+    private static void validate(CartOperation operation) {
+        String op = operation.op() != null ? operation.op().toLowerCase(Locale.ROOT) : "";
+        Integer quantity = operation.quantity();
+        boolean valid = operation.productId() != null && switch (op) {
+            case OP_ADD -> quantity != null && quantity >= 1;
+            case OP_SET -> quantity != null && quantity >= 0;
+            case OP_REMOVE -> true;
+            default -> false;
+        };
+        if (!valid) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Operación de carrito inválida");
+        }
+    }
+
+    private List<Long> insertItems(long cartId, List<HotCart.Line> lines) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        writeTransaction.executeWithoutResult(status -> {
+            int[] rows = jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_ITEM, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        HotCart.Line line = lines.get(i);
+                        ps.setLong(1, line.productId);
+                        ps.setInt(2, line.quantity);
+                        ps.setLong(3, cartId);
+                        ps.setString(4, nodeId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return lines.size();
+                    }
+                }, keys);
+            for (int count : rows) {
+                // rolls the whole batch back
+                if (count == 0) {
+                    throw new CartMovedException();
+                }
+            }
+        });
+
+        // the key column is named differently per driver, each row holds just the one key
+        List<Long> ids = new ArrayList<>(lines.size());
+        for (Map<String, Object> row : keys.getKeyList()) {
+            ids.add(((Number) row.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    // Prices as checkout charges them: priceCents is the selling price, discountCents the saving inside it
+    private CartSummary summary(HotCart hot, Map<Long, Product> products) {
+        Cart cart = header(hot);
+        List<CartItem> items = new ArrayList<>();
+        int itemCount = 0;
+        long totalCents = 0;
+        long savingsCents = 0;
+        for (HotCart.Line line : hot.lines()) {
+            Product product = products.get(line.productId);
+            if (product == null) {
+                continue;
+            }
+            items.add(item(cart, line.itemId, product, line.quantity));
+            itemCount += line.quantity;
+            totalCents = Math.addExact(totalCents, Math.multiplyExact(cents(product.getPriceCents()), line.quantity));
+            savingsCents = Math.addExact(savingsCents, Math.multiplyExact(cents(product.getDiscountCents()), line.quantity));
+        }
+        cart.setItems(items);
+        return new CartSummary(cart, itemCount, totalCents, savingsCents);
+    }
+
+    private static long cents(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private Cart view(HotCart hot) {
+        Cart cart;
+        List<HotCart.Line> lines;
+        hot.lock.lock();
+        try {
+            cart = header(hot);
+            lines = hot.lines();
+        } finally {
+            hot.lock.unlock();
+        }
+
+        List<CartItem> items = new ArrayList<>(lines.size());
+        for (HotCart.Line line : lines) {
+            Product product = product(line.productId);
+            if (product != null) {
+                items.add(item(cart, line.itemId, product, line.quantity));
+            }
+        }
+        cart.setItems(items);
+        return cart;
+    }
+
+    private Cart header(HotCart hot) {
+        Cart cart = new Cart();
+        cart.setId(hot.id);
+        cart.setUpdatedAt(hot.updatedAt());
+        if (hot.userId != null) {
+            cart.setUser(userCache.getById(hot.userId, () -> userRepository.findById(hot.userId)).orElse(null));
+        }
+        return cart;
+    }
+
+    private Product product(long productId) {
+        return catalogCache.getById(productId, () -> productRepository.findById(productId)).orElse(null);
+    }
+
+    private static CartItem item(Cart cart, long itemId, Product product, int quantity) {
+        CartItem item = new CartItem(cart, product, quantity);
+        item.setId(itemId);
+        return item;
+    }
+
+    // An insert found the cart held by another node
+    private static final class CartMovedException extends RuntimeException {
+        CartMovedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Catalog response bodies exactly as Jackson wrote them, plus a gzip copy for larger ones.
+// Keys carry the ETag, so a catalog write simply makes older entries unreachable until they are evicted.
+@Component
+public class CatalogResponseCache {
+
+    private static final int HEADER_BYTES = 256;
+
+    private final Cache<Key, EncodedResponse> responses;
+    private final long compressionThreshold;
+    private final Counter identityBytes;
+    private final Counter gzipBytes;
+
+    public CatalogResponseCache(MeterRegistry meterRegistry,
+                                @Value("${catalog.responses.max-size:64MB}") DataSize maxSize,
+                                @Value("${catalog.responses.compression-threshold:1KB}") DataSize compressionThreshold) {
+        this.compressionThreshold = compressionThreshold.toBytes();
+        this.responses = Caffeine.newBuilder()
+            .maximumWeight(maxSize.toBytes())
+            .weigher((Key key, EncodedResponse response) -> response.weight())
+            .recordStats()
+            .build();
+        this.identityBytes = servedBytes(meterRegistry, "identity");
+        this.gzipBytes = servedBytes(meterRegistry, "gzip");
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "catalog.responses");
+        Gauge.builder("catalog.responses.cached.bytes", responses,
+                cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+            .description("Bytes held by the pre-encoded catalog response cache")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    public EncodedResponse get(Key key) {
+        return responses.getIfPresent(key);
+    }
+
+    public EncodedResponse put(Key key, String route, String contentType, Map<String, List<String>> headers, byte[] body) {
+        byte[] gzip = body.length >= compressionThreshold ? gzip(body) : null;
+        EncodedResponse response = new EncodedResponse(route, contentType, Map.copyOf(headers), body, gzip);
+        responses.put(key, response);
+        return response;
+    }
+
+    // Headers the handler set are already on the response after a miss, on a hit they are replayed here
+    public void write(EncodedResponse encoded, boolean acceptsGzip, boolean replayHeaders, HttpServletResponse response)
+            throws IOException {
+        if (replayHeaders) {
+            response.setContentType(encoded.contentType());
+            encoded.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        }
+        byte[] body = encoded.identity();
+        if (encoded.gzip() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip) {
+                body = encoded.gzip();
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
+        (body == encoded.identity() ? identityBytes : gzipBytes).increment(body.length);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static Counter servedBytes(MeterRegistry meterRegistry, String encoding) {
+        return Counter.builder("catalog.responses.served.bytes")
+            .description("Catalog response bytes written straight from the cache")
+            .baseUnit("bytes")
+            .tag("encoding", encoding)
+            .register(meterRegistry);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    // cors separates responses to browser requests, which carry the CORS headers, from the rest
+    public record Key(String etag, String uri, boolean cors) {}
+
+    public record EncodedResponse(String route, String contentType, Map<String, List<String>> headers,
+                                  byte[] identity, byte[] gzip) {
+
+        int weight() {
+            return HEADER_BYTES + identity.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
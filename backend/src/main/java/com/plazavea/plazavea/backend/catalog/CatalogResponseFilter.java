@@ -0,0 +1,135 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Tags catalog GETs with the current revision, answers a matching If-None-Match with 304 and serves
+// repeated reads from pre-encoded bytes, all before the DispatcherServlet, the repositories or Jackson run
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class CatalogResponseFilter extends OncePerRequestFilter {
+
+    private static final Pattern PRODUCT_PATH = Pattern.compile("^/api/products/(\\d+)$");
+    private static final String PRODUCTS_PATH = "/api/products";
+    private static final String CATEGORIES_PATH = "/api/categories";
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+        HttpHeaders.ETAG.toLowerCase(), HttpHeaders.CACHE_CONTROL.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+        HttpHeaders.CONTENT_ENCODING.toLowerCase(), HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.DATE.toLowerCase(),
+        HttpHeaders.CONTENT_TYPE.toLowerCase());
+
+    private final CatalogVersions catalogVersions;
+    private final CatalogResponseCache responseCache;
+    private final String cacheControl;
+
+    public CatalogResponseFilter(CatalogVersions catalogVersions,
+                                 CatalogResponseCache responseCache,
+                                 @Value("${catalog.http.max-age:0s}") Duration maxAge) {
+        this.catalogVersions = catalogVersions;
+        this.responseCache = responseCache;
+        this.cacheControl = (maxAge.isZero() ? CacheControl.noCache()
+            : CacheControl.maxAge(maxAge).mustRevalidate()).cachePublic().getHeaderValue();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = path(request);
+        return !("GET".equals(method) || "HEAD".equals(method))
+            || !(path.startsWith(PRODUCTS_PATH) || path.startsWith(CATEGORIES_PATH));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        String etag = etagFor(path);
+        String query = request.getQueryString();
+        CatalogResponseCache.Key key = new CatalogResponseCache.Key(etag, query != null ? path + "?" + query : path,
+            request.getHeader(HttpHeaders.ORIGIN) != null);
+        CatalogResponseCache.EncodedResponse cached = responseCache.get(key);
+        if (cached != null && cached.route() != null) {
+            // the handler mapping never runs for a cached response, the gateway metrics still need the route
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, cached.route());
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        if ("HEAD".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean acceptsGzip = acceptsGzip(request);
+        if (cached != null) {
+            responseCache.write(cached, acceptsGzip, true, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || request.isAsyncStarted()
+                || contentType == null || !contentType.contains("json")) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        CatalogResponseCache.EncodedResponse encoded = responseCache.put(key, route instanceof String pattern ? pattern : null,
+            contentType, handlerHeaders(response), wrapper.getContentAsByteArray());
+        responseCache.write(encoded, acceptsGzip, false, response);
+    }
+
+    private String etagFor(String path) {
+        Matcher product = PRODUCT_PATH.matcher(path);
+        if (product.matches()) {
+            return catalogVersions.productEtag(Long.parseLong(product.group(1)));
+        }
+        if (path.startsWith(CATEGORIES_PATH)) {
+            return catalogVersions.categoriesEtag();
+        }
+        return catalogVersions.catalogEtag();
+    }
+
+    private Map<String, List<String>> handlerHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!UNCACHED_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,90 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.cache.TieredCacheManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic revisions behind the catalog ETags and response cache keys. Counters start at the boot time
+// so a restart never reuses a tag. Caches and indexes listen at order 0, so they already serve the new
+// state by the time the revision moves here and a client can never pair a new ETag with an old body.
+// Revisions are only ordered within one node: a local stock change moves them once, the same change seen
+// through the bus once per product, and two nodes may boot in the same millisecond. Every tag therefore
+// carries the node id, and a client that moves to another node downloads the body again.
+@Component
+public class CatalogVersions {
+
+    private final String node;
+    private final long bootRevision;
+    private final AtomicLong catalogRevision;
+    private final AtomicLong categoryRevision;
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CatalogVersions(TieredCacheManager cacheManager) {
+        this(cacheManager.getNodeId(), System.currentTimeMillis());
+    }
+
+    CatalogVersions(String nodeId, long bootRevision) {
+        // the tag is a quoted string, the id must not close it
+        this.node = nodeId.replaceAll("[^A-Za-z0-9._-]", "_");
+        this.bootRevision = bootRevision;
+        this.catalogRevision = new AtomicLong(bootRevision);
+        this.categoryRevision = new AtomicLong(bootRevision);
+    }
+
+    // Any product or category write, covers every product listing
+    public String catalogEtag() {
+        return "\"c" + catalogRevision.get() + "-" + node + "\"";
+    }
+
+    // Category bodies never embed products, so product writes leave these tags alone
+    public String categoriesEtag() {
+        return "\"k" + categoryRevision.get() + "-" + node + "\"";
+    }
+
+    // A product embeds its category, so its tag also moves with category writes
+    public String productEtag(Long productId) {
+        return "\"p" + productId + "-" + productVersions.getOrDefault(productId, bootRevision)
+            + "-" + categoryRevision.get() + "-" + node + "\"";
+    }
+
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        productVersions.put(event.productId(), catalogRevision.incrementAndGet());
+    }
+
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categoryRevision.incrementAndGet();
+        catalogRevision.incrementAndGet();
+    }
+
+    public void remoteProductChanged(Long productId) {
+        productVersions.put(productId, catalogRevision.incrementAndGet());
+    }
+
+    public void remoteCategoryChanged() {
+        categoryRevision.incrementAndGet();
+        catalogRevision.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onStockChanged(StockChangedEvent event) {
+        long revision = catalogRevision.incrementAndGet();
+        for (Long productId : event.productIds()) {
+            productVersions.put(productId, revision);
+        }
+    }
+}
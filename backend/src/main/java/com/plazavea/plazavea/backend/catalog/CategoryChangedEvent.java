@@ -0,0 +1,15 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.model.Category;
+
+// category is null for a deleted category
+public record CategoryChangedEvent(Long categoryId, Category category) {
+
+    public static CategoryChangedEvent saved(Category category) {
+        return new CategoryChangedEvent(category.getId(), category);
+    }
+
+    public static CategoryChangedEvent deleted(Long categoryId) {
+        return new CategoryChangedEvent(categoryId, null);
+    }
+}
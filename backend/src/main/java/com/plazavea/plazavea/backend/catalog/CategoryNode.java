@@ -0,0 +1,5 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import java.util.List;
+
+public record CategoryNode(Long id, String name, Long parentId, int depth, List<CategoryNode> children) {}
@@ -0,0 +1,182 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.model.Category;
+import com.plazavea.plazavea.backend.repository.CategoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Immutable in-memory copy of the category hierarchy. Each subtree is a contiguous range of the
+// pre-order id list, so readers get a category plus all its descendants without walking the tree.
+@Component
+public class CategoryTree {
+
+    private final CategoryRepository categoryRepository;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public CategoryTree(CategoryRepository categoryRepository, MeterRegistry meterRegistry) {
+        this.categoryRepository = categoryRepository;
+        Gauge.builder("catalog.categories.tree.nodes", this, tree -> tree.snapshot().rows.size())
+            .description("Categories held in the materialized category tree")
+            .register(meterRegistry);
+    }
+
+    public List<CategoryNode> roots() {
+        return snapshot().roots;
+    }
+
+    public Optional<CategoryNode> find(Long categoryId) {
+        return Optional.ofNullable(snapshot().nodes.get(categoryId));
+    }
+
+    public boolean contains(Long categoryId) {
+        return snapshot().rows.containsKey(categoryId);
+    }
+
+    // The category followed by all of its descendants; unknown ids come back on their own
+    public List<Long> subtreeIds(Long categoryId) {
+        return snapshot().subtree(categoryId);
+    }
+
+    // Ancestors from the direct parent up to the root
+    public List<Long> ancestorIds(Long categoryId) {
+        return snapshot().ancestors(categoryId);
+    }
+
+    public boolean isDescendant(Long categoryId, Long ancestorId) {
+        return snapshot().ancestors(categoryId).contains(ancestorId);
+    }
+
+    public long version() {
+        return snapshot().version;
+    }
+
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            Map<Long, Row> rows = new HashMap<>();
+            for (Category category : categoryRepository.findAll()) {
+                rows.put(category.getId(), Row.of(category));
+            }
+            snapshot = new Snapshot(versions.incrementAndGet(), rows);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    @Order(0)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                rebuild();
+                return;
+            }
+            Map<Long, Row> rows = new HashMap<>(current.rows);
+            if (event.category() != null) {
+                rows.put(event.categoryId(), Row.of(event.category()));
+            } else {
+                rows.remove(event.categoryId());
+            }
+            snapshot = new Snapshot(versions.incrementAndGet(), rows);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private record Row(Long id, String name, Long parentId) {
+
+        static Row of(Category category) {
+            return new Row(category.getId(), category.getName(), category.getParentId());
+        }
+    }
+
+    private static final class Snapshot {
+
+        private static final Comparator<Row> BY_NAME = Comparator.comparing(Row::name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Row::id);
+
+        private final long version;
+        private final Map<Long, Row> rows;
+        private final Map<Long, CategoryNode> nodes = new HashMap<>();
+        private final Map<Long, Integer> rangeStart = new HashMap<>();
+        private final Map<Long, Integer> rangeEnd = new HashMap<>();
+        private final List<Long> preorder;
+        private final List<CategoryNode> roots;
+
+        Snapshot(long version, Map<Long, Row> rows) {
+            this.version = version;
+            this.rows = Collections.unmodifiableMap(rows);
+
+            Map<Long, List<Row>> children = new HashMap<>();
+            List<Row> rootRows = new ArrayList<>();
+            for (Row row : rows.values()) {
+                // a parent that no longer exists leaves the category at the top level
+                if (row.parentId() == null || !rows.containsKey(row.parentId())) {
+                    rootRows.add(row);
+                } else {
+                    children.computeIfAbsent(row.parentId(), key -> new ArrayList<>()).add(row);
+                }
+            }
+            rootRows.sort(BY_NAME);
+            children.values().forEach(siblings -> siblings.sort(BY_NAME));
+
+            List<Long> order = new ArrayList<>(rows.size());
+            List<CategoryNode> built = new ArrayList<>(rootRows.size());
+            for (Row root : rootRows) {
+                built.add(build(root, 0, children, order));
+            }
+            this.preorder = Collections.unmodifiableList(order);
+            this.roots = Collections.unmodifiableList(built);
+        }
+
+        private CategoryNode build(Row row, int depth, Map<Long, List<Row>> children, List<Long> order) {
+            rangeStart.put(row.id(), order.size());
+            order.add(row.id());
+            List<CategoryNode> childNodes = new ArrayList<>();
+            for (Row child : children.getOrDefault(row.id(), List.of())) {
+                childNodes.add(build(child, depth + 1, children, order));
+            }
+            rangeEnd.put(row.id(), order.size());
+            CategoryNode node = new CategoryNode(row.id(), row.name(), row.parentId(), depth,
+                Collections.unmodifiableList(childNodes));
+            nodes.put(row.id(), node);
+            return node;
+        }
+
+        List<Long> subtree(Long categoryId) {
+            Integer start = rangeStart.get(categoryId);
+            return start == null ? List.of(categoryId) : preorder.subList(start, rangeEnd.get(categoryId));
+        }
+
+        List<Long> ancestors(Long categoryId) {
+            List<Long> ancestors = new ArrayList<>();
+            Row row = rows.get(categoryId);
+            while (row != null && row.parentId() != null && ancestors.size() < rows.size()) {
+                ancestors.add(row.parentId());
+                row = rows.get(row.parentId());
+            }
+            return ancestors;
+        }
+    }
+}
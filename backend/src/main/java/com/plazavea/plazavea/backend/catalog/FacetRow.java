@@ -0,0 +1,16 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.model.Product;
+
+import java.time.LocalDateTime;
+
+// The handful of product columns the facet index needs, loaded without hydrating entities
+public record FacetRow(Long id, Long categoryId, Long priceCents, Long discountCents, Integer inventory,
+                       LocalDateTime createdAt) {
+
+    public static FacetRow of(Product product) {
+        return new FacetRow(product.getId(),
+            product.getCategory() != null ? product.getCategory().getId() : null,
+            product.getPriceCents(), product.getDiscountCents(), product.getInventory(), product.getCreatedAt());
+    }
+}
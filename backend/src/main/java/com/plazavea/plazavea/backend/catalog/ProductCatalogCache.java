@@ -0,0 +1,190 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plazavea.plazavea.backend.cache.CacheLoading;
+import com.plazavea.plazavea.backend.cache.TieredCache;
+import com.plazavea.plazavea.backend.cache.TieredCacheManager;
+import com.plazavea.plazavea.backend.model.Category;
+import com.plazavea.plazavea.backend.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class ProductCatalogCache {
+
+    private static final String DISCOUNT_PRODUCTS = "discount";
+    private static final String AVAILABLE_PRODUCTS = "available";
+    static final String PRODUCTS_BY_ID = "catalog.products";
+    private static final String CATEGORIES_BY_ID = "catalog.categories";
+
+    // shared with the other nodes, everything below them is local and derived
+    private final TieredCache<Product> productsById;
+    private final TieredCache<Category> categoriesById;
+    private final AsyncCache<Long, List<Product>> productsByCategory;
+    private final AsyncCache<SubtreeKey, List<Product>> productsBySubtree;
+    private final AsyncCache<String, List<Product>> productLists;
+    private final AsyncCache<PageKey, List<Product>> productPages;
+    // bumped before pages are dropped so a load that raced a write is stored under a key nobody reads
+    private final AtomicLong pageGeneration = new AtomicLong();
+    private final CategoryTree categoryTree;
+    private final CatalogVersions catalogVersions;
+
+    public ProductCatalogCache(MeterRegistry meterRegistry,
+                               TieredCacheManager cacheManager,
+                               CategoryTree categoryTree,
+                               CatalogVersions catalogVersions,
+                               @Value("${catalog.cache.maximum-weight:50000}") long maximumWeight,
+                               @Value("${catalog.cache.ttl:10m}") Duration ttl) {
+        this.categoryTree = categoryTree;
+        this.catalogVersions = catalogVersions;
+        this.productsById = cacheManager.cache(PRODUCTS_BY_ID, Product.class);
+        this.categoriesById = cacheManager.cache(CATEGORIES_BY_ID, Category.class);
+        this.productsByCategory = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((Long categoryId, List<Product> products) -> Math.max(1, products.size()))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        this.productsBySubtree = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((SubtreeKey key, List<Product> products) -> Math.max(1, products.size()))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        this.productLists = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((String key, List<Product> products) -> Math.max(1, products.size()))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        this.productPages = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((PageKey key, List<Product> products) -> Math.max(1, products.size()))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+
+        // another node changed a product or category: drop what was derived from it here, then move the revision
+        cacheManager.onRemoteInvalidation(PRODUCTS_BY_ID, productId -> {
+            dropLists();
+            catalogVersions.remoteProductChanged(Long.valueOf(productId));
+        });
+        cacheManager.onRemoteInvalidation(CATEGORIES_BY_ID, categoryId -> {
+            categoryTree.rebuild();
+            dropLists();
+            catalogVersions.remoteCategoryChanged();
+        });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, productsByCategory, "catalog.products.by-category");
+        CaffeineCacheMetrics.monitor(meterRegistry, productsBySubtree, "catalog.products.by-subtree");
+        CaffeineCacheMetrics.monitor(meterRegistry, productLists, "catalog.products.lists");
+        CaffeineCacheMetrics.monitor(meterRegistry, productPages, "catalog.products.pages");
+    }
+
+    public Optional<Product> getById(Long id, Supplier<Optional<Product>> loader) {
+        return productsById.get(id, loader);
+    }
+
+    public Optional<Category> getCategoryById(Long id, Supplier<Optional<Category>> loader) {
+        return categoriesById.get(id, loader);
+    }
+
+    public List<Product> getByCategory(Long categoryId, Supplier<List<Product>> loader) {
+        return CacheLoading.get(productsByCategory, categoryId, () -> List.copyOf(loader.get()));
+    }
+
+    // keyed by tree version so entries built against an older hierarchy are never read again
+    public List<Product> getBySubtree(Long categoryId, Supplier<List<Product>> loader) {
+        SubtreeKey key = new SubtreeKey(categoryTree.version(), categoryId);
+        return CacheLoading.get(productsBySubtree, key, () -> List.copyOf(loader.get()));
+    }
+
+    public List<Product> getPage(String cursor, int size, Supplier<List<Product>> loader) {
+        PageKey key = new PageKey(pageGeneration.get(), cursor, size);
+        return CacheLoading.get(productPages, key, () -> List.copyOf(loader.get()));
+    }
+
+    public List<Product> getDiscounted(Supplier<List<Product>> loader) {
+        return CacheLoading.get(productLists, DISCOUNT_PRODUCTS, () -> List.copyOf(loader.get()));
+    }
+
+    public List<Product> getAvailable(Supplier<List<Product>> loader) {
+        return CacheLoading.get(productLists, AVAILABLE_PRODUCTS, () -> List.copyOf(loader.get()));
+    }
+
+    @EventListener
+    @Order(0)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductState before = event.before();
+        ProductState after = event.after();
+
+        productsById.invalidate(event.productId());
+        pageGeneration.incrementAndGet();
+        productPages.synchronous().invalidateAll();
+
+        if (before != null && before.categoryId() != null) {
+            invalidateCategory(before.categoryId());
+        }
+        if (after != null && after.categoryId() != null) {
+            invalidateCategory(after.categoryId());
+        }
+        if ((before != null && before.discounted()) || (after != null && after.discounted())) {
+            productLists.synchronous().invalidate(DISCOUNT_PRODUCTS);
+        }
+        if ((before != null && before.available()) || (after != null && after.available())) {
+            productLists.synchronous().invalidate(AVAILABLE_PRODUCTS);
+        }
+    }
+
+    // Stock moved by checkout: only the cached bodies that show inventory change
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(0)
+    public void onStockChanged(StockChangedEvent event) {
+        event.productIds().forEach(productsById::invalidate);
+        pageGeneration.incrementAndGet();
+        productPages.synchronous().invalidateAll();
+        productLists.synchronous().invalidate(AVAILABLE_PRODUCTS);
+    }
+
+    // Products embed their category, so listings built before a rename or move are dropped as well
+    @EventListener
+    @Order(0)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categoriesById.invalidate(event.categoryId());
+        dropLists();
+    }
+
+    private void dropLists() {
+        pageGeneration.incrementAndGet();
+        productPages.synchronous().invalidateAll();
+        productsByCategory.synchronous().invalidateAll();
+        productsBySubtree.synchronous().invalidateAll();
+        productLists.synchronous().invalidateAll();
+    }
+
+    private void invalidateCategory(Long categoryId) {
+        productsByCategory.synchronous().invalidate(categoryId);
+        long version = categoryTree.version();
+        productsBySubtree.synchronous().invalidate(new SubtreeKey(version, categoryId));
+        for (Long ancestorId : categoryTree.ancestorIds(categoryId)) {
+            productsBySubtree.synchronous().invalidate(new SubtreeKey(version, ancestorId));
+        }
+    }
+
+    private record SubtreeKey(long treeVersion, Long categoryId) {}
+
+    private record PageKey(long generation, String cursor, int size) {}
+}
@@ -0,0 +1,23 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.model.Product;
+
+// before is null for a created product; after and product are null for a deleted one
+public record ProductChangedEvent(ProductState before, ProductState after, Product product) {
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(null, ProductState.of(product), product);
+    }
+
+    public static ProductChangedEvent updated(ProductState before, Product product) {
+        return new ProductChangedEvent(before, ProductState.of(product), product);
+    }
+
+    public static ProductChangedEvent deleted(Product product) {
+        return new ProductChangedEvent(ProductState.of(product), null, null);
+    }
+
+    public Long productId() {
+        return after != null ? after.id() : before.id();
+    }
+}
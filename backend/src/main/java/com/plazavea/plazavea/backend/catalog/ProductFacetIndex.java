@@ -0,0 +1,455 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.cache.TieredCacheManager;
+import com.plazavea.plazavea.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory bitsets over the catalog so category, price, discount and stock filters combine with plain
+// AND operations and every facet count is a cardinality. Each product gets a dense slot; sort keys are
+// packed above the slot so paging only compares primitive longs.
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private static final int SLOT_BITS = 23;
+    private static final long MAX_SORT_KEY = (1L << (63 - SLOT_BITS)) - 1;
+
+    private final ProductRepository productRepository;
+    private final CategoryTree categoryTree;
+    private final long[] priceBounds;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    // guarded by lock
+    private Segment live;
+    private boolean ready = false;
+    // latest row of every product written while a rebuild runs, null when it was deleted
+    private Map<Long, FacetRow> changedDuringRebuild;
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             CategoryTree categoryTree,
+                             TieredCacheManager cacheManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${catalog.facets.price-buckets:1000,2000,5000,10000,20000}") long[] priceBounds) {
+        this.productRepository = productRepository;
+        this.categoryTree = categoryTree;
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+        this.live = new Segment();
+        Gauge.builder("catalog.facets.index.documents", this, ProductFacetIndex::documents)
+            .description("Products held in the in-memory facet index")
+            .register(meterRegistry);
+
+        // another node wrote the product, its event never fires here
+        cacheManager.onRemoteInvalidation(ProductCatalogCache.PRODUCTS_BY_ID,
+            productId -> reload(Long.valueOf(productId)));
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result query(ProductFacetQuery query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Segment segment = live;
+            BitSet categoryBits = query.categoryId() != null ? segment.categories(categoryTree.subtreeIds(query.categoryId())) : null;
+            BitSet priceBits = query.minPriceCents() != null || query.maxPriceCents() != null
+                ? segment.priceRange(query.minPriceCents(), query.maxPriceCents()) : null;
+            BitSet discountBits = query.discounted() ? segment.discounted : null;
+            BitSet stockBits = query.inStock() ? segment.inStock : null;
+
+            BitSet matches = intersect(segment.live, categoryBits, priceBits, discountBits, stockBits);
+            ProductFacets facets = new ProductFacets(
+                categoryCounts(segment, query.categoryId(), intersect(segment.live, priceBits, discountBits, stockBits)),
+                priceCounts(segment, intersect(segment.live, categoryBits, discountBits, stockBits)),
+                countAnd(intersect(segment.live, categoryBits, priceBits, stockBits), segment.discounted),
+                countAnd(intersect(segment.live, categoryBits, priceBits, discountBits), segment.inStock));
+
+            int total = matches.cardinality();
+            return new Result(total, segment.page(matches, total, query.sort(), offset, limit), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread rebuilder = new Thread(this::rebuild, "product-facet-index-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+    }
+
+    // Hot SKU leases move stock without events, so in-stock flags are also re-read from the database periodically
+    @Scheduled(initialDelayString = "${catalog.facets.refresh-interval:5m}",
+               fixedDelayString = "${catalog.facets.refresh-interval:5m}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long started = System.nanoTime();
+            Segment building = new Segment();
+            for (FacetRow row : productRepository.findFacetRows()) {
+                building.put(row);
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, FacetRow> change : changedDuringRebuild.entrySet()) {
+                    apply(building, change.getKey(), change.getValue());
+                }
+                live = building;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Product facet index rebuilt with {} products in {} ms",
+                building.slotByProduct.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Product facet index rebuild failed, keeping the previous index", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    @EventListener
+    @Order(0)
+    public void onProductChanged(ProductChangedEvent event) {
+        write(List.of(event.productId()), event.product() != null ? List.of(FacetRow.of(event.product())) : List.of());
+    }
+
+    // Re-reads the rows checkout just changed so the in-stock facet follows reservations
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(0)
+    public void onStockChanged(StockChangedEvent event) {
+        write(event.productIds(), productRepository.findFacetRowsByIdIn(event.productIds()));
+    }
+
+    private void reload(Long productId) {
+        try {
+            write(List.of(productId), productRepository.findFacetRowsByIdIn(List.of(productId)));
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh facets of product {} changed on another node", productId, e);
+        }
+    }
+
+    // Applies the current rows of productIds to the live segment and keeps them for a running rebuild,
+    // whose snapshot may predate them. Ids without a row were deleted
+    private void write(Collection<Long> productIds, List<FacetRow> rows) {
+        Map<Long, FacetRow> rowsById = new HashMap<>();
+        for (Long productId : productIds) {
+            rowsById.put(productId, null);
+        }
+        for (FacetRow row : rows) {
+            rowsById.put(row.id(), row);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, FacetRow> change : rowsById.entrySet()) {
+                apply(live, change.getKey(), change.getValue());
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.putAll(rowsById);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int documents() {
+        lock.readLock().lock();
+        try {
+            return live.slotByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Segment segment, Long productId, FacetRow row) {
+        if (row != null) {
+            segment.put(row);
+        } else {
+            segment.remove(productId);
+        }
+    }
+
+    private List<ProductFacets.CategoryCount> categoryCounts(Segment segment, Long categoryId, BitSet base) {
+        int[] countsByOrdinal = new int[segment.categoryIds.size()];
+        for (int slot = base.nextSetBit(0); slot >= 0; slot = base.nextSetBit(slot + 1)) {
+            int ordinal = segment.categoryOrdinals[slot];
+            if (ordinal >= 0) {
+                countsByOrdinal[ordinal]++;
+            }
+        }
+
+        List<CategoryNode> nodes = categoryId == null ? categoryTree.roots()
+            : categoryTree.find(categoryId).map(CategoryNode::children).orElse(List.of());
+        List<ProductFacets.CategoryCount> counts = new ArrayList<>(nodes.size());
+        for (CategoryNode node : nodes) {
+            long count = 0;
+            for (Long id : categoryTree.subtreeIds(node.id())) {
+                Integer ordinal = segment.ordinalByCategory.get(id);
+                if (ordinal != null) {
+                    count += countsByOrdinal[ordinal];
+                }
+            }
+            counts.add(new ProductFacets.CategoryCount(node.id(), node.name(), count));
+        }
+        return counts;
+    }
+
+    private List<ProductFacets.PriceRangeCount> priceCounts(Segment segment, BitSet base) {
+        List<ProductFacets.PriceRangeCount> counts = new ArrayList<>(segment.priceBuckets.length);
+        for (int bucket = 0; bucket < segment.priceBuckets.length; bucket++) {
+            Long min = bucket == 0 ? 0L : priceBounds[bucket - 1];
+            Long max = bucket < priceBounds.length ? priceBounds[bucket] : null;
+            counts.add(new ProductFacets.PriceRangeCount(min, max, countAnd(base, segment.priceBuckets[bucket])));
+        }
+        return counts;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static long countAnd(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result.cardinality();
+    }
+
+    private static long clampSortKey(long key) {
+        return Math.max(0, Math.min(key, MAX_SORT_KEY));
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (key >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    public record Result(long total, List<Long> productIds, ProductFacets facets) {}
+
+    private final class Segment {
+
+        private final Map<Long, Integer> slotByProduct = new HashMap<>();
+        private final Map<Long, Integer> ordinalByCategory = new HashMap<>();
+        private final List<Long> categoryIds = new ArrayList<>();
+        private final List<BitSet> byCategory = new ArrayList<>();
+        private final BitSet[] priceBuckets = new BitSet[priceBounds.length + 1];
+        private final BitSet live = new BitSet();
+        private final BitSet discounted = new BitSet();
+        private final BitSet inStock = new BitSet();
+
+        // slot-indexed columns, slots of deleted products stay empty until the next rebuild
+        private long[] productIds = new long[1024];
+        private long[] prices = new long[1024];
+        private long[] createdSeconds = new long[1024];
+        private int[] categoryOrdinals = new int[1024];
+        private int size;
+
+        Segment() {
+            for (int i = 0; i < priceBuckets.length; i++) {
+                priceBuckets[i] = new BitSet();
+            }
+        }
+
+        void put(FacetRow row) {
+            Integer existing = slotByProduct.get(row.id());
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                clear(slot);
+            } else {
+                if (size == 1 << SLOT_BITS) {
+                    throw new IllegalStateException("Product facet index is full");
+                }
+                slot = size++;
+                if (slot == productIds.length) {
+                    int capacity = productIds.length * 2;
+                    productIds = Arrays.copyOf(productIds, capacity);
+                    prices = Arrays.copyOf(prices, capacity);
+                    createdSeconds = Arrays.copyOf(createdSeconds, capacity);
+                    categoryOrdinals = Arrays.copyOf(categoryOrdinals, capacity);
+                }
+                slotByProduct.put(row.id(), slot);
+            }
+
+            // priceCents is what checkout charges, discountCents only marks the product as on offer
+            long discount = row.discountCents() != null ? row.discountCents() : 0;
+            long price = row.priceCents() != null ? row.priceCents() : 0;
+            productIds[slot] = row.id();
+            prices[slot] = price;
+            createdSeconds[slot] = row.createdAt() != null ? row.createdAt().toEpochSecond(ZoneOffset.UTC) : 0;
+            categoryOrdinals[slot] = row.categoryId() != null ? ordinal(row.categoryId()) : -1;
+
+            live.set(slot);
+            discounted.set(slot, discount > 0);
+            inStock.set(slot, row.inventory() != null && row.inventory() > 0);
+            priceBuckets[bucketOf(price)].set(slot);
+            if (categoryOrdinals[slot] >= 0) {
+                byCategory.get(categoryOrdinals[slot]).set(slot);
+            }
+        }
+
+        void remove(Long productId) {
+            Integer slot = slotByProduct.remove(productId);
+            if (slot != null) {
+                clear(slot);
+            }
+        }
+
+        BitSet categories(List<Long> ids) {
+            BitSet bits = new BitSet(size);
+            for (Long id : ids) {
+                Integer ordinal = ordinalByCategory.get(id);
+                if (ordinal != null) {
+                    bits.or(byCategory.get(ordinal));
+                }
+            }
+            return bits;
+        }
+
+        BitSet priceRange(Long minCents, Long maxCents) {
+            long min = minCents != null ? minCents : Long.MIN_VALUE;
+            long max = maxCents != null ? maxCents : Long.MAX_VALUE;
+            BitSet bits = new BitSet(size);
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                if (prices[slot] >= min && prices[slot] <= max) {
+                    bits.set(slot);
+                }
+            }
+            return bits;
+        }
+
+        // Keeps only the first offset + limit keys in a bounded max-heap instead of sorting every match
+        List<Long> page(BitSet matches, int total, ProductFacetQuery.Sort sort, int offset, int limit) {
+            int wanted = (int) Math.min(total, (long) offset + limit);
+            if (offset >= wanted) {
+                return List.of();
+            }
+            boolean descending = sort != ProductFacetQuery.Sort.PRICE_ASC;
+            long[] heap = new long[wanted];
+            int heapSize = 0;
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                long sortKey = clampSortKey(sort == ProductFacetQuery.Sort.NEWEST ? createdSeconds[slot] : prices[slot]);
+                long key = ((descending ? MAX_SORT_KEY - sortKey : sortKey) << SLOT_BITS) | slot;
+                if (heapSize < wanted) {
+                    heap[heapSize] = key;
+                    siftUp(heap, heapSize++);
+                } else if (key < heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, heapSize);
+                }
+            }
+            Arrays.sort(heap, 0, heapSize);
+
+            List<Long> ids = new ArrayList<>(heapSize - offset);
+            for (int position = offset; position < heapSize; position++) {
+                ids.add(productIds[(int) (heap[position] & ((1L << SLOT_BITS) - 1))]);
+            }
+            return ids;
+        }
+
+        private void clear(int slot) {
+            live.clear(slot);
+            discounted.clear(slot);
+            inStock.clear(slot);
+            priceBuckets[bucketOf(prices[slot])].clear(slot);
+            if (categoryOrdinals[slot] >= 0) {
+                byCategory.get(categoryOrdinals[slot]).clear(slot);
+            }
+        }
+
+        private int ordinal(Long categoryId) {
+            return ordinalByCategory.computeIfAbsent(categoryId, id -> {
+                categoryIds.add(id);
+                byCategory.add(new BitSet());
+                return categoryIds.size() - 1;
+            });
+        }
+
+        private int bucketOf(long price) {
+            int bucket = 0;
+            while (bucket < priceBounds.length && price >= priceBounds[bucket]) {
+                bucket++;
+            }
+            return bucket;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.model.Product;
+
+import java.util.List;
+
+public record ProductFacetPage(List<Product> products, long total, int page, int size, ProductFacets facets) {}
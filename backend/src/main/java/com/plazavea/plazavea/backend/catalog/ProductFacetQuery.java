@@ -0,0 +1,10 @@
+package com.plazavea.plazavea.backend.catalog;
+
+// Null bounds and false flags leave that facet unfiltered
+public record ProductFacetQuery(Long categoryId, Long minPriceCents, Long maxPriceCents,
+                                boolean discounted, boolean inStock, Sort sort) {
+
+    public enum Sort {
+        NEWEST, PRICE_ASC, PRICE_DESC
+    }
+}
@@ -0,0 +1,13 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import java.util.List;
+
+// Each count applies every filter of the query except the facet's own, so clients can show what a click would yield
+public record ProductFacets(List<CategoryCount> categories, List<PriceRangeCount> priceRanges,
+                            long discounted, long inStock) {
+
+    public record CategoryCount(Long id, String name, long count) {}
+
+    // maxCents is exclusive and null for the open-ended top range
+    public record PriceRangeCount(Long minCents, Long maxCents, long count) {}
+}
@@ -0,0 +1,365 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.cache.TieredCacheManager;
+import com.plazavea.plazavea.backend.model.Product;
+import com.plazavea.plazavea.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_SKU = 2;
+    private static final int FIELD_DESCRIPTION = 4;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final int maxResults;
+    private final Counter truncatedPrefixes;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private volatile Segment live = new Segment();
+    private volatile boolean ready = false;
+
+    // written under writeLock while a rebuild is running
+    private Segment building;
+    private Set<Long> writtenDuringRebuild;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              TieredCacheManager cacheManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${catalog.search.max-results:200}") int maxResults) {
+        this.productRepository = productRepository;
+        this.maxResults = maxResults;
+        Gauge.builder("catalog.search.index.documents", this, index -> index.live.documents.size())
+            .description("Products held in the in-memory search index")
+            .register(meterRegistry);
+        Gauge.builder("catalog.search.index.terms", this, index -> index.live.postings.size())
+            .description("Distinct terms held in the in-memory search index")
+            .register(meterRegistry);
+        this.truncatedPrefixes = Counter.builder("catalog.search.prefix.truncated")
+            .description("Query terms whose prefix matched more index terms than are expanded")
+            .register(meterRegistry);
+
+        // another node wrote the product, its event never fires here
+        cacheManager.onRemoteInvalidation(ProductCatalogCache.PRODUCTS_BY_ID,
+            productId -> reload(Long.valueOf(productId)));
+    }
+
+    // A refresh keeps serving the previous segment, which still receives every write while the next one is built
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    // Returns product ids ranked by relevance, every query term must match a name, SKU or description term.
+    // categoryIds restricts results to those categories, null searches the whole catalog
+    public List<Long> search(String query, Set<Long> categoryIds, int limit) {
+        Segment segment = live;
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            Map<Long, Double> tokenScores = segment.match(tokens.get(i), categoryIds, truncatedPrefixes);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Long, Double> merged = new HashMap<>();
+                Map<Long, Double> smaller = scores.size() <= tokenScores.size() ? scores : tokenScores;
+                Map<Long, Double> larger = smaller == scores ? tokenScores : scores;
+                for (Map.Entry<Long, Double> entry : smaller.entrySet()) {
+                    Double other = larger.get(entry.getKey());
+                    if (other != null) {
+                        merged.put(entry.getKey(), entry.getValue() + other);
+                    }
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        int cap = Math.max(1, Math.min(limit, maxResults));
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+            .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(cap + 1, ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > cap) {
+                top.poll();
+            }
+        }
+
+        Long[] ranked = new Long[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = top.poll().getKey();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread rebuilder = new Thread(this::rebuild, "product-search-index-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+    }
+
+    // Catches up on invalidations the bus did not deliver
+    @Scheduled(initialDelayString = "${catalog.search.refresh-interval:15m}",
+               fixedDelayString = "${catalog.search.refresh-interval:15m}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            building = new Segment();
+            writtenDuringRebuild = new HashSet<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            long started = System.nanoTime();
+            Page<Product> page = productRepository.findAll(PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id")));
+            while (true) {
+                writeLock.lock();
+                try {
+                    for (Product product : page.getContent()) {
+                        if (!writtenDuringRebuild.contains(product.getId())) {
+                            building.add(product);
+                        }
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+                if (!page.hasNext()) {
+                    break;
+                }
+                page = productRepository.findAll(page.nextPageable());
+            }
+
+            writeLock.lock();
+            try {
+                live = building;
+                ready = true;
+            } finally {
+                writeLock.unlock();
+            }
+            log.info("Product search index rebuilt with {} products in {} ms",
+                live.documents.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Product search index rebuild failed, searches will keep using the database", e);
+        } finally {
+            writeLock.lock();
+            try {
+                building = null;
+                writtenDuringRebuild = null;
+            } finally {
+                writeLock.unlock();
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    @EventListener
+    @Order(0)
+    public void onProductChanged(ProductChangedEvent event) {
+        write(event.productId(), event.product());
+    }
+
+    private void reload(Long productId) {
+        try {
+            write(productId, productRepository.findById(productId).orElse(null));
+        } catch (RuntimeException e) {
+            log.warn("Could not reindex product {} changed on another node", productId, e);
+        }
+    }
+
+    // a null product removes it from the index
+    private void write(Long productId, Product product) {
+        writeLock.lock();
+        try {
+            apply(live, productId, product);
+            if (building != null) {
+                apply(building, productId, product);
+                writtenDuringRebuild.add(productId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(Segment segment, Long productId, Product product) {
+        segment.remove(productId);
+        if (product != null) {
+            segment.add(product);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static double fieldWeight(int fields) {
+        if ((fields & FIELD_NAME) != 0) {
+            return 3.0;
+        }
+        if ((fields & FIELD_SKU) != 0) {
+            return 2.0;
+        }
+        return 1.0;
+    }
+
+    private record IndexedProduct(Long categoryId, Set<String> terms) {}
+
+    private static final class Segment {
+
+        private final ConcurrentSkipListMap<String, ConcurrentHashMap<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+
+        void add(Product product) {
+            Map<String, Integer> fieldsByTerm = new HashMap<>();
+            collect(fieldsByTerm, product.getName(), FIELD_NAME);
+            collect(fieldsByTerm, product.getSku(), FIELD_SKU);
+            collect(fieldsByTerm, product.getDescription(), FIELD_DESCRIPTION);
+            if (product.getSku() != null) {
+                // also index the whole SKU so "ABC-123" matches as one term
+                String sku = String.join("", tokenize(product.getSku()));
+                if (!sku.isEmpty()) {
+                    fieldsByTerm.merge(sku, FIELD_SKU, (a, b) -> a | b);
+                }
+            }
+
+            for (Map.Entry<String, Integer> entry : fieldsByTerm.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new ConcurrentHashMap<>())
+                    .put(product.getId(), entry.getValue());
+            }
+            Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+            documents.put(product.getId(), new IndexedProduct(categoryId, fieldsByTerm.keySet()));
+        }
+
+        void remove(Long productId) {
+            IndexedProduct indexed = documents.remove(productId);
+            if (indexed == null) {
+                return;
+            }
+            for (String term : indexed.terms()) {
+                postings.computeIfPresent(term, (key, ids) -> {
+                    ids.remove(productId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        Map<Long, Double> match(String token, Set<Long> categoryIds, Counter truncated) {
+            Map<Long, Double> scores = new HashMap<>();
+            for (Map.Entry<String, ConcurrentHashMap<Long, Integer>> entry : expand(token, truncated)) {
+                double termBoost = entry.getKey().length() == token.length() ? 1.0 : 0.5;
+                for (Map.Entry<Long, Integer> posting : entry.getValue().entrySet()) {
+                    if (categoryIds != null) {
+                        IndexedProduct indexed = documents.get(posting.getKey());
+                        if (indexed == null || !categoryIds.contains(indexed.categoryId())) {
+                            continue;
+                        }
+                    }
+                    scores.merge(posting.getKey(), fieldWeight(posting.getValue()) * termBoost, Math::max);
+                }
+            }
+            return scores;
+        }
+
+        // The exact term plus the prefix expansions found in the most products. Short prefixes like "a"
+        // cover thousands of terms, keeping the alphabetically first ones would drop common words
+        private List<Map.Entry<String, ConcurrentHashMap<Long, Integer>>> expand(String token, Counter truncated) {
+            Comparator<Map.Entry<String, ConcurrentHashMap<Long, Integer>>> frequency =
+                Comparator.comparingInt(entry -> entry.getValue().size());
+            PriorityQueue<Map.Entry<String, ConcurrentHashMap<Long, Integer>>> top =
+                new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1, frequency);
+            Map.Entry<String, ConcurrentHashMap<Long, Integer>> exact = null;
+            int expansions = 0;
+            for (Map.Entry<String, ConcurrentHashMap<Long, Integer>> entry
+                    : postings.subMap(token, true, token + Character.MAX_VALUE, true).entrySet()) {
+                if (entry.getKey().length() == token.length()) {
+                    exact = entry;
+                    continue;
+                }
+                expansions++;
+                top.offer(entry);
+                if (top.size() > MAX_PREFIX_EXPANSIONS) {
+                    top.poll();
+                }
+            }
+            if (expansions > MAX_PREFIX_EXPANSIONS) {
+                truncated.increment();
+                log.debug("Search prefix \"{}\" matched {} terms, kept the {} most frequent",
+                    token, expansions, MAX_PREFIX_EXPANSIONS);
+            }
+
+            List<Map.Entry<String, ConcurrentHashMap<Long, Integer>>> terms = new ArrayList<>(top.size() + 1);
+            if (exact != null) {
+                terms.add(exact);
+            }
+            terms.addAll(top);
+            return terms;
+        }
+
+        private static void collect(Map<String, Integer> fieldsByTerm, String text, int field) {
+            for (String token : tokenize(text)) {
+                fieldsByTerm.merge(token, field, (a, b) -> a | b);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.model.Product;
+
+public record ProductState(Long id, Long categoryId, boolean discounted, boolean available) {
+
+    public static ProductState of(Product product) {
+        return new ProductState(
+            product.getId(),
+            product.getCategory() != null ? product.getCategory().getId() : null,
+            product.getDiscountCents() != null && product.getDiscountCents() > 0,
+            product.getInventory() != null && product.getInventory() > 0);
+    }
+}
@@ -0,0 +1,147 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.plazavea.plazavea.backend.model.Category;
+import com.plazavea.plazavea.backend.model.Product;
+import com.plazavea.plazavea.backend.repository.CategoryRepository;
+import com.plazavea.plazavea.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Catalog reads as Flux streams. JDBC stays blocking, so every query runs on a scheduler capped below the
+// connection pool and no request thread waits on the database. Rows are handed to another scheduler for
+// serialization and the socket writes, so a slow reader never holds a JDBC thread. Listings are read in keyset
+// pages of catalog.stream.page-size and the next page is only queried once the client has taken the previous
+// one, so a slow reader holds about a page in memory instead of the whole result.
+@Service
+public class ReactiveCatalogService {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex searchIndex;
+    private final CategoryTree categoryTree;
+    private final Scheduler jdbcScheduler;
+    private final int pageSize;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    public ReactiveCatalogService(ProductRepository productRepository,
+                                  CategoryRepository categoryRepository,
+                                  ProductSearchIndex searchIndex,
+                                  CategoryTree categoryTree,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${catalog.stream.jdbc-threads:8}") int jdbcThreads,
+                                  @Value("${catalog.stream.queue-size:10000}") int queueSize,
+                                  @Value("${catalog.stream.page-size:200}") int pageSize) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.searchIndex = searchIndex;
+        this.categoryTree = categoryTree;
+        this.jdbcScheduler = Schedulers.newBoundedElastic(jdbcThreads, queueSize, "catalog-jdbc");
+        this.pageSize = pageSize;
+        Gauge.builder("catalog.stream.active", activeStreams, AtomicInteger::get)
+            .description("Catalog streams currently being written to clients")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        jdbcScheduler.dispose();
+    }
+
+    // Same filters as GET /api/products/search, with limit capping every branch instead of only some
+    public Flux<Product> products(Long categoryId, String search, Integer limit) {
+        Flux<Product> products = Flux.defer(() -> {
+            if (search != null && !search.isBlank() && searchIndex.isReady()) {
+                int cap = limit != null ? limit : searchIndex.getMaxResults();
+                Set<Long> categoryIds = categoryId != null ? new HashSet<>(categoryTree.subtreeIds(categoryId)) : null;
+                return ranked(searchIndex.search(search, categoryIds, cap));
+            }
+            if (categoryId != null) {
+                List<Long> categoryIds = categoryTree.subtreeIds(categoryId);
+                if (search != null && !search.isEmpty()) {
+                    return onJdbc(() -> productRepository.findByCategoryIdInAndSearch(categoryIds, search))
+                        .flatMapIterable(rows -> rows);
+                }
+                return keyset(page -> productRepository.findFirstPageByCategoryIdIn(categoryIds, page),
+                    (last, page) -> productRepository.findPageAfterByCategoryIdIn(categoryIds, last.getCreatedAt(),
+                        last.getId(), page));
+            }
+            if (search != null && !search.isEmpty()) {
+                return onJdbc(() -> productRepository.findByNameOrDescriptionOrSkuContaining(search))
+                    .flatMapIterable(rows -> rows);
+            }
+            return keyset(productRepository::findFirstPage,
+                (last, page) -> productRepository.findPageAfter(last.getCreatedAt(), last.getId(), page));
+        });
+        if (limit != null) {
+            products = products.take(Math.max(limit, 0), true);
+        }
+        return tracked(products);
+    }
+
+    public Flux<Category> categories() {
+        return tracked(onJdbc(categoryRepository::findAll).flatMapIterable(rows -> rows));
+    }
+
+    // Index hits are loaded a page at a time and put back in rank order within the page
+    private Flux<Product> ranked(List<Long> rankedIds) {
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        return Flux.fromIterable(rankedIds)
+            .buffer(pageSize)
+            .concatMap(ids -> onJdbc(() -> {
+                List<Product> products = new ArrayList<>(productRepository.findAllById(ids));
+                products.sort(Comparator.comparing(product -> rank.get(product.getId())));
+                return products;
+            }), 1)
+            .concatMapIterable(rows -> rows, 1);
+    }
+
+    private Flux<Product> keyset(PageQuery first, NextPageQuery next) {
+        Pageable page = PageRequest.of(0, pageSize);
+        return onJdbc(() -> first.find(page))
+            .expand(rows -> rows.size() < pageSize
+                ? Mono.empty()
+                : onJdbc(() -> next.find(rows.get(rows.size() - 1), page)))
+            .concatMapIterable(rows -> rows, 1);
+    }
+
+    private <T> Mono<T> onJdbc(Callable<T> query) {
+        return Mono.fromCallable(query).subscribeOn(jdbcScheduler);
+    }
+
+    private <T> Flux<T> tracked(Flux<T> stream) {
+        return stream
+            .publishOn(Schedulers.boundedElastic(), pageSize)
+            .doOnSubscribe(subscription -> activeStreams.incrementAndGet())
+            .doFinally(signal -> activeStreams.decrementAndGet());
+    }
+
+    private interface PageQuery {
+        List<Product> find(Pageable page);
+    }
+
+    private interface NextPageQuery {
+        List<Product> find(Product last, Pageable page);
+    }
+}
@@ -0,0 +1,6 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import java.util.Collection;
+
+// Published by inventory updates that bypass the product endpoints, such as checkout reservations
+public record StockChangedEvent(Collection<Long> productIds) {}
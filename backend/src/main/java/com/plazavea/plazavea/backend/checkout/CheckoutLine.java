@@ -0,0 +1,3 @@
+package com.plazavea.plazavea.backend.checkout;
+
+public record CheckoutLine(Long productId, Integer quantity) {}
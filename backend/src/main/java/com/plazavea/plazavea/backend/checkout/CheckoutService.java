@@ -0,0 +1,127 @@
+package com.plazavea.plazavea.backend.checkout;
+
+import com.plazavea.plazavea.backend.inventory.InventoryService;
+import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.repository.OrderRepository;
+import com.plazavea.plazavea.backend.repository.ProductRepository;
+import com.plazavea.plazavea.backend.repository.UserRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class CheckoutService {
+
+    private static final String INSERT_ORDER_ITEM =
+        "INSERT INTO order_items (order_id, product_id, quantity, unit_price_cents) VALUES (?, ?, ?, ?)";
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final InventoryService inventoryService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CheckoutService(OrderRepository orderRepository,
+                           ProductRepository productRepository,
+                           UserRepository userRepository,
+                           InventoryService inventoryService,
+                           JdbcTemplate jdbcTemplate) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.inventoryService = inventoryService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // One user lookup, one price lookup, one order insert and one batched item insert, whatever the basket size
+    @Transactional
+    public Order placeOrder(Long userId, String currency, String paymentProvider, List<CheckoutLine> lines) {
+        Map<Long, Integer> quantities = mergeLines(lines);
+
+        User user = null;
+        if (userId != null) {
+            user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuario no encontrado"));
+        }
+
+        Map<Long, ProductPrice> prices = productRepository.findPricesByIdIn(quantities.keySet()).stream()
+            .collect(Collectors.toMap(ProductPrice::id, Function.identity()));
+        if (prices.size() != quantities.size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Producto no encontrado");
+        }
+
+        List<PricedLine> pricedLines = new ArrayList<>(quantities.size());
+        long totalCents = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            long unitPriceCents = unitPrice(prices.get(entry.getKey()));
+            pricedLines.add(new PricedLine(entry.getKey(), entry.getValue(), unitPriceCents));
+            totalCents = Math.addExact(totalCents, Math.multiplyExact(unitPriceCents, entry.getValue()));
+        }
+
+        inventoryService.reserve(quantities);
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(InventoryService.STATUS_PENDING);
+        order.setTotalCents(totalCents);
+        order.setCurrency(currency != null ? currency : "PEN");
+        order.setPaymentProvider(paymentProvider);
+        Order savedOrder = orderRepository.saveAndFlush(order);
+
+        insertItems(savedOrder.getId(), pricedLines);
+        return savedOrder;
+    }
+
+    // priceCents is the selling price; discountCents is the saving already shown against it in the storefront
+    static long unitPrice(ProductPrice price) {
+        return price.priceCents();
+    }
+
+    private static Map<Long, Integer> mergeLines(List<CheckoutLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El pedido no tiene productos");
+        }
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CheckoutLine line : lines) {
+            if (line.productId() == null || line.quantity() == null || line.quantity() < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Línea de pedido inválida");
+            }
+            quantities.merge(line.productId(), line.quantity(), Math::addExact);
+        }
+        return quantities;
+    }
+
+    private void insertItems(Long orderId, List<PricedLine> lines) {
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PricedLine line = lines.get(i);
+                ps.setLong(1, orderId);
+                ps.setLong(2, line.productId());
+                ps.setInt(3, line.quantity());
+                ps.setLong(4, line.unitPriceCents());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+    }
+
+    private record PricedLine(Long productId, int quantity, long unitPriceCents) {}
+}
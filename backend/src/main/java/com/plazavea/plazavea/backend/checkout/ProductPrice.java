@@ -0,0 +1,3 @@
+package com.plazavea.plazavea.backend.checkout;
+
+public record ProductPrice(Long id, Long priceCents, Long discountCents) {}
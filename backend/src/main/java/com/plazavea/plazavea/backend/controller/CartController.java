@@ -1,11 +1,16 @@
 package com.plazavea.plazavea.backend.controller;
 
+import com.plazavea.plazavea.backend.cart.CartOperation;
+import com.plazavea.plazavea.backend.cart.CartSummary;
+import com.plazavea.plazavea.backend.cart.HotCartStore;
+import com.plazavea.plazavea.backend.catalog.ProductCatalogCache;
 import com.plazavea.plazavea.backend.model.Cart;
 import com.plazavea.plazavea.backend.model.CartItem;
 import com.plazavea.plazavea.backend.model.Product;
 import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.pagination.Cursor;
+import com.plazavea.plazavea.backend.pagination.PageSupport;
 import com.plazavea.plazavea.backend.repository.CartRepository;
-import com.plazavea.plazavea.backend.repository.CartItemRepository;
 import com.plazavea.plazavea.backend.repository.ProductRepository;
 import com.plazavea.plazavea.backend.repository.UserRepository;
 import jakarta.validation.Valid;
@@ -18,14 +23,14 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/carts")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageSupport.NEXT_CURSOR_HEADER, PageSupport.TOTAL_COUNT_HEADER})
 public class CartController {
 
     @Autowired
     private CartRepository cartRepository;
 
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private HotCartStore hotCarts;
 
     @Autowired
     private UserRepository userRepository;
@@ -33,32 +38,50 @@ public class CartController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private PageSupport pageSupport;
+
     @GetMapping
-    public List<Cart> getAllCarts() {
-        return cartRepository.findAll();
+    public ResponseEntity<List<Cart>> getAllCarts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = pageSupport.size(size);
+        List<Cart> carts;
+        if (cursor == null) {
+            carts = cartRepository.findFirstPage(pageSupport.keysetLimit(pageSize));
+        } else {
+            carts = cartRepository.findPageAfter(Cursor.decode(cursor).id(), pageSupport.keysetLimit(pageSize));
+        }
+        // no session is left open while the response is written, so the items have to be loaded here
+        if (!carts.isEmpty()) {
+            carts = cartRepository.findByIdInOrderByIdDesc(carts.stream().map(Cart::getId).toList());
+        }
+        return pageSupport.keysetResponse(carts, pageSize, cart -> Cursor.ofId(cart.getId()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Cart> getCartById(@PathVariable Long id) {
-        Optional<Cart> cart = cartRepository.findById(id);
-        return cart.map(ResponseEntity::ok)
+        return hotCarts.getCart(id).map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // a cart already in memory answers without touching the database
     @GetMapping("/user/{userId}")
     public ResponseEntity<Cart> getCartByUserId(@PathVariable Long userId) {
+        Optional<Cart> cart = hotCarts.getCartForUser(userId);
+        if (cart.isPresent()) {
+            return ResponseEntity.ok(cart.get());
+        }
+
         Optional<User> user = userRepository.findById(userId);
         if (user.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        
-        Optional<Cart> cart = cartRepository.findByUser(user.get());
-        if (cart.isEmpty()) {
-            Cart newCart = new Cart(user.get());
-            Cart savedCart = cartRepository.save(newCart);
-            return ResponseEntity.ok(savedCart);
-        }
-        return ResponseEntity.ok(cart.get());
+        return hotCarts.createCart(user.get()).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/user/{userId}")
@@ -67,83 +90,65 @@ public class CartController {
         if (user.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        
-        Optional<Cart> existingCart = cartRepository.findByUser(user.get());
-        if (existingCart.isPresent()) {
+
+        if (hotCarts.getCartForUser(userId).isPresent()) {
             return ResponseEntity.badRequest().build();
         }
-        
-        Cart cart = new Cart(user.get());
-        Cart savedCart = cartRepository.save(cart);
-        return ResponseEntity.ok(savedCart);
+
+        return hotCarts.createCart(user.get()).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{cartId}/items")
     public ResponseEntity<CartItem> addItemToCart(@PathVariable Long cartId, @Valid @RequestBody CartItem cartItem) {
-        Optional<Cart> cart = cartRepository.findById(cartId);
-        if (cart.isEmpty()) {
+        if (hotCarts.getCart(cartId).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        Optional<Product> product = productRepository.findById(cartItem.getProduct().getId());
+        Long productId = cartItem.getProduct().getId();
+        Optional<Product> product = productId != null
+                ? catalogCache.getById(productId, () -> productRepository.findById(productId))
+                : Optional.empty();
         if (product.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-        Optional<CartItem> existingItem = cartItemRepository.findByCartAndProduct(cart.get(), product.get());
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + cartItem.getQuantity());
-            return ResponseEntity.ok(cartItemRepository.save(item));
-        }
+        return hotCarts.addItem(cartId, product.get(), cartItem.getQuantity()).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        cartItem.setCart(cart.get());
-        cartItem.setProduct(product.get());
-        CartItem savedItem = cartItemRepository.save(cartItem);
-        return ResponseEntity.ok(savedItem);
+    // Applies a whole list of add/set/remove operations at once, e.g. restoring a saved cart after login
+    @PostMapping("/{cartId}/items/bulk")
+    public ResponseEntity<CartSummary> applyCartOperations(@PathVariable Long cartId, @RequestBody List<CartOperation> operations) {
+        return hotCarts.apply(cartId, operations).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{cartId}/items/{itemId}")
     public ResponseEntity<CartItem> updateCartItem(@PathVariable Long cartId, @PathVariable Long itemId, @Valid @RequestBody CartItem cartItem) {
-        Optional<CartItem> existingItem = cartItemRepository.findById(itemId);
-        if (existingItem.isEmpty() || !existingItem.get().getCart().getId().equals(cartId)) {
-            return ResponseEntity.notFound().build();
-        }
-
-        CartItem item = existingItem.get();
-        item.setQuantity(cartItem.getQuantity());
-        return ResponseEntity.ok(cartItemRepository.save(item));
+        return hotCarts.updateItem(cartId, itemId, cartItem.getQuantity()).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{cartId}/items/{itemId}")
     public ResponseEntity<Void> removeItemFromCart(@PathVariable Long cartId, @PathVariable Long itemId) {
-        Optional<CartItem> item = cartItemRepository.findById(itemId);
-        if (item.isEmpty() || !item.get().getCart().getId().equals(cartId)) {
+        if (!hotCarts.removeItem(cartId, itemId)) {
             return ResponseEntity.notFound().build();
         }
-
-        cartItemRepository.delete(item.get());
         return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("/{cartId}/items")
     public ResponseEntity<Void> clearCart(@PathVariable Long cartId) {
-        Optional<Cart> cart = cartRepository.findById(cartId);
-        if (cart.isEmpty()) {
+        if (!hotCarts.clear(cartId)) {
             return ResponseEntity.notFound().build();
         }
-
-        cartItemRepository.deleteByCart(cart.get());
         return ResponseEntity.ok().build();
     }
 
     @GetMapping("/{cartId}/items")
     public ResponseEntity<List<CartItem>> getCartItems(@PathVariable Long cartId) {
-        Optional<Cart> cart = cartRepository.findById(cartId);
-        if (cart.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        return ResponseEntity.ok(cart.get().getItems());
+        return hotCarts.getCart(cartId).map(cart -> ResponseEntity.ok(cart.getItems()))
+                .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -0,0 +1,57 @@
+package com.plazavea.plazavea.backend.controller;
+
+import com.plazavea.plazavea.backend.catalog.ReactiveCatalogService;
+import com.plazavea.plazavea.backend.model.Category;
+import com.plazavea.plazavea.backend.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+// Non-blocking twin of the catalog reads: Spring MVC writes each element as the Flux emits it and only asks for
+// the next one once the previous one is written. The request thread is released as soon as the stream is
+// returned. Newline-delimited JSON by default, server-sent events when the client asks for text/event-stream
+// (mapped separately, MVC would otherwise pick SSE for Accept: */*) and a plain array for application/json.
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class CatalogStreamController {
+
+    @Autowired
+    private ReactiveCatalogService reactiveCatalog;
+
+    @GetMapping(value = "/products", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Flux<Product>> streamProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Integer limit) {
+
+        Long categoryId = null;
+        try {
+            categoryId = category != null ? Long.parseLong(category) : null;
+        } catch (NumberFormatException e) {
+            categoryId = null;
+        }
+
+        return ResponseEntity.ok(reactiveCatalog.products(categoryId, search, limit));
+    }
+
+    @GetMapping(value = "/products", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<Product>> streamProductEvents(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Integer limit) {
+        return streamProducts(category, search, limit);
+    }
+
+    @GetMapping(value = "/categories", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Flux<Category>> streamCategories() {
+        return ResponseEntity.ok(reactiveCatalog.categories());
+    }
+
+    @GetMapping(value = "/categories", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<Category>> streamCategoryEvents() {
+        return streamCategories();
+    }
+}
@@ -1,12 +1,18 @@
 package com.plazavea.plazavea.backend.controller;
 
+import com.plazavea.plazavea.backend.catalog.CategoryChangedEvent;
+import com.plazavea.plazavea.backend.catalog.CategoryNode;
+import com.plazavea.plazavea.backend.catalog.CategoryTree;
+import com.plazavea.plazavea.backend.catalog.ProductCatalogCache;
 import com.plazavea.plazavea.backend.model.Category;
 import com.plazavea.plazavea.backend.repository.CategoryRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,15 +25,35 @@ public class CategoryController {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryTree categoryTree;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping
     public ResponseEntity<List<Category>> getAllCategories() {
         List<Category> categories = categoryRepository.findAll();
         return ResponseEntity.ok(categories);
     }
 
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryNode>> getCategoryTree() {
+        return ResponseEntity.ok(categoryTree.roots());
+    }
+
+    @GetMapping("/{id}/tree")
+    public ResponseEntity<CategoryNode> getCategorySubtree(@PathVariable Long id) {
+        return categoryTree.find(id).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        Optional<Category> category = categoryRepository.findById(id);
+        Optional<Category> category = catalogCache.getCategoryById(id, () -> categoryRepository.findById(id));
         return category.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -47,8 +73,10 @@ public class CategoryController {
         if (category.getName() == null || category.getName().trim().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
+        validateParent(null, category.getParentId());
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(savedCategory));
         return ResponseEntity.status(HttpStatus.CREATED).body(savedCategory);
     }
 
@@ -66,10 +94,13 @@ public class CategoryController {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
 
+        validateParent(id, categoryDetails.getParentId());
+
         category.setName(categoryDetails.getName());
         category.setParentId(categoryDetails.getParentId());
 
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(updatedCategory));
         return ResponseEntity.ok(updatedCategory);
     }
 
@@ -80,6 +111,20 @@ public class CategoryController {
         }
         
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(id));
         return ResponseEntity.noContent().build();
     }
+
+    private void validateParent(Long id, Long parentId) {
+        if (parentId == null) {
+            return;
+        }
+        if (!categoryRepository.existsById(parentId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La categoría padre " + parentId + " no existe");
+        }
+        if (id != null && (id.equals(parentId) || categoryTree.isDescendant(parentId, id))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Una categoría no puede ser subcategoría de sí misma ni de sus descendientes");
+        }
+    }
 }
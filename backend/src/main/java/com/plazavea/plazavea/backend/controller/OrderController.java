@@ -1,36 +1,99 @@
 package com.plazavea.plazavea.backend.controller;
 
+import com.plazavea.plazavea.backend.checkout.CheckoutLine;
+import com.plazavea.plazavea.backend.checkout.CheckoutService;
+import com.plazavea.plazavea.backend.export.ExportFilter;
+import com.plazavea.plazavea.backend.export.ExportFormat;
+import com.plazavea.plazavea.backend.export.ExportService;
+import com.plazavea.plazavea.backend.inventory.InventoryService;
 import com.plazavea.plazavea.backend.model.Order;
-import com.plazavea.plazavea.backend.model.OrderItem;
-import com.plazavea.plazavea.backend.model.Product;
 import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.order.OrderCompletedEvent;
+import com.plazavea.plazavea.backend.order.OrderQueryService;
+import com.plazavea.plazavea.backend.order.OrderSummary;
+import com.plazavea.plazavea.backend.pagination.Cursor;
+import com.plazavea.plazavea.backend.pagination.PageSupport;
 import com.plazavea.plazavea.backend.repository.OrderRepository;
-import com.plazavea.plazavea.backend.repository.ProductRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageSupport.NEXT_CURSOR_HEADER, PageSupport.TOTAL_COUNT_HEADER})
 public class OrderController {
 
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private PageSupport pageSupport;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private OrderQueryService orderQueryService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderRepository.findAllOrderByCreatedAtDesc();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderSummary>> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = pageSupport.size(size);
+        if (page != null) {
+            return pageSupport.offsetResponse(orderQueryService.withDetails(
+                    orderRepository.findSummaryPage(pageSupport.offset(page, pageSize, PageSupport.NEWEST_FIRST))));
+        }
+
+        List<OrderSummary> orders;
+        if (cursor == null) {
+            orders = orderRepository.findFirstPage(pageSupport.keysetLimit(pageSize));
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            orders = orderRepository.findPageAfter(position.createdAt(), position.id(), pageSupport.keysetLimit(pageSize));
+        }
+        return pageSupport.keysetResponse(orderQueryService.withDetails(orders), pageSize,
+                order -> new Cursor(order.createdAt(), order.id()));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ExportFilter filter = new ExportFilter(from, to, status);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(out -> exportService.exportOrders(filter, exportFormat, out));
     }
 
     @GetMapping("/{id}")
@@ -41,48 +104,53 @@ public class OrderController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getOrdersByUserId(@PathVariable Long userId) {
-        List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderSummary>> getOrdersByUserId(@PathVariable Long userId,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size) {
+        int pageSize = pageSupport.size(size);
+        List<OrderSummary> orders;
+        if (cursor == null) {
+            orders = orderRepository.findFirstPageByUserId(userId, pageSupport.keysetLimit(pageSize));
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            orders = orderRepository.findPageByUserIdAfter(userId, position.createdAt(), position.id(),
+                    pageSupport.keysetLimit(pageSize));
+        }
+        return pageSupport.keysetResponse(orderQueryService.withDetails(orders), pageSize,
+                order -> new Cursor(order.createdAt(), order.id()));
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status) {
-        List<Order> orders = orderRepository.findByStatusOrderByCreatedAtDesc(status);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderSummary>> getOrdersByStatus(@PathVariable String status,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size) {
+        int pageSize = pageSupport.size(size);
+        List<OrderSummary> orders;
+        if (cursor == null) {
+            orders = orderRepository.findFirstPageByStatus(status, pageSupport.keysetLimit(pageSize));
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            orders = orderRepository.findPageByStatusAfter(status, position.createdAt(), position.id(),
+                    pageSupport.keysetLimit(pageSize));
+        }
+        return pageSupport.keysetResponse(orderQueryService.withDetails(orders), pageSize,
+                order -> new Cursor(order.createdAt(), order.id()));
     }
 
     @PostMapping
     public ResponseEntity<Order> createOrder(@Valid @RequestBody OrderRequest orderRequest) {
-        Order order = new Order();
-        order.setUser(orderRequest.getUser());
-        order.setStatus("pending");
-        order.setTotalCents(orderRequest.getTotalCents());
-        order.setCurrency(orderRequest.getCurrency() != null ? orderRequest.getCurrency() : "PEN");
-        order.setPaymentProvider(orderRequest.getPaymentProvider());
-
-        List<OrderItem> orderItems = new ArrayList<>();
+        if (orderRequest.getItems() == null || orderRequest.getItems().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
 
+        List<CheckoutLine> lines = new ArrayList<>();
         for (OrderItemRequest itemRequest : orderRequest.getItems()) {
-            var productOpt = productRepository.findById(itemRequest.getProductId());
-            if (productOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-            }
-
-            Product product = productOpt.get();
-            
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setProduct(product);
-            orderItem.setQuantity(itemRequest.getQuantity());
-            orderItem.setUnitPriceCents(itemRequest.getUnitPriceCents());
-
-            orderItems.add(orderItem);
+            lines.add(new CheckoutLine(itemRequest.getProductId(), itemRequest.getQuantity()));
         }
 
-        order.setItems(orderItems);
-
-        Order savedOrder = orderRepository.save(order);
+        Long userId = orderRequest.getUser() != null ? orderRequest.getUser().getId() : null;
+        Order savedOrder = checkoutService.placeOrder(userId, orderRequest.getCurrency(),
+                orderRequest.getPaymentProvider(), lines);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
     }
 
@@ -94,11 +162,19 @@ public class OrderController {
             return ResponseEntity.notFound().build();
         }
 
-        Order order = optionalOrder.get();
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
+        String currentStatus = optionalOrder.get().getStatus();
+        if (InventoryService.STATUS_CANCELLED.equals(status)) {
+            inventoryService.cancel(id);
+        } else if (InventoryService.STATUS_CANCELLED.equals(currentStatus)) {
+            // its stock has already been released
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "El pedido cancelado no puede reabrirse");
+        } else if (orderRepository.updateStatusIfCurrent(id, currentStatus, status) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "El pedido cambió de estado, vuelva a intentarlo");
+        } else if (isCompleted(status) && !isCompleted(currentStatus)) {
+            eventPublisher.publishEvent(new OrderCompletedEvent(id));
+        }
 
-        return ResponseEntity.ok(updatedOrder);
+        return ResponseEntity.ok(orderRepository.findById(id).orElseThrow());
     }
 
     @DeleteMapping("/{id}")
@@ -107,10 +183,15 @@ public class OrderController {
             return ResponseEntity.notFound().build();
         }
 
+        inventoryService.cancel(id);
         orderRepository.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 
+    private static boolean isCompleted(String status) {
+        return InventoryService.STATUS_PAID.equals(status) || InventoryService.STATUS_COMPLETED.equals(status);
+    }
+
     public static class OrderRequest {
         private User user;
         private Long totalCents;
@@ -1,20 +1,29 @@
 package com.plazavea.plazavea.backend.controller;
 
+import com.plazavea.plazavea.backend.export.ExportFilter;
+import com.plazavea.plazavea.backend.export.ExportFormat;
+import com.plazavea.plazavea.backend.export.ExportService;
 import com.plazavea.plazavea.backend.model.Payment;
 import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.pagination.Cursor;
+import com.plazavea.plazavea.backend.pagination.PageSupport;
 import com.plazavea.plazavea.backend.repository.PaymentRepository;
 import com.plazavea.plazavea.backend.repository.OrderRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/payments")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageSupport.NEXT_CURSOR_HEADER, PageSupport.TOTAL_COUNT_HEADER})
 public class PaymentController {
 
     @Autowired
@@ -23,9 +32,43 @@ public class PaymentController {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private PageSupport pageSupport;
+
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    public ResponseEntity<List<Payment>> getAllPayments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = pageSupport.size(size);
+        List<Payment> payments;
+        if (cursor == null) {
+            payments = paymentRepository.findFirstPage(pageSupport.keysetLimit(pageSize));
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            payments = paymentRepository.findPageAfter(position.createdAt(), position.id(), pageSupport.keysetLimit(pageSize));
+        }
+        return pageSupport.keysetResponse(payments, pageSize, payment -> new Cursor(payment.getCreatedAt(), payment.getId()));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ExportFilter filter = new ExportFilter(from, to, status);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments." + exportFormat.getExtension() + "\"")
+                .body(out -> exportService.exportPayments(filter, exportFormat, out));
     }
 
     @GetMapping("/{id}")
@@ -1,59 +1,116 @@
 package com.plazavea.plazavea.backend.controller;
 
+import com.plazavea.plazavea.backend.catalog.CategoryTree;
+import com.plazavea.plazavea.backend.catalog.ProductCatalogCache;
+import com.plazavea.plazavea.backend.catalog.ProductChangedEvent;
+import com.plazavea.plazavea.backend.catalog.ProductFacetIndex;
+import com.plazavea.plazavea.backend.catalog.ProductFacetPage;
+import com.plazavea.plazavea.backend.catalog.ProductFacetQuery;
+import com.plazavea.plazavea.backend.catalog.ProductSearchIndex;
+import com.plazavea.plazavea.backend.catalog.ProductState;
+import com.plazavea.plazavea.backend.inventory.InventoryService;
 import com.plazavea.plazavea.backend.model.Product;
+import com.plazavea.plazavea.backend.pagination.Cursor;
+import com.plazavea.plazavea.backend.pagination.PageSupport;
 import com.plazavea.plazavea.backend.repository.ProductRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageSupport.NEXT_CURSOR_HEADER, PageSupport.TOTAL_COUNT_HEADER})
 public class ProductController {
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private CategoryTree categoryTree;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PageSupport pageSupport;
+
+    @Autowired
+    private InventoryService inventoryService;
+
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productRepository.findAll();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<Product>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = pageSupport.size(size);
+        if (page != null) {
+            return pageSupport.offsetResponse(
+                    productRepository.findAll(pageSupport.offset(page, pageSize, PageSupport.NEWEST_FIRST)));
+        }
+
+        List<Product> products = getProductPage(cursor, pageSize);
+        return pageSupport.keysetResponse(products, pageSize, product -> new Cursor(product.getCreatedAt(), product.getId()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productRepository.findById(id);
+        Optional<Product> product = catalogCache.getById(id, () -> productRepository.findById(id));
         return product.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<Product> products = productRepository.findByCategoryId(categoryId);
+    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId,
+                                                               @RequestParam(defaultValue = "true") boolean descendants) {
+        if (!descendants) {
+            return ResponseEntity.ok(catalogCache.getByCategory(categoryId,
+                    () -> productRepository.findByCategoryId(categoryId)));
+        }
+        List<Product> products = catalogCache.getBySubtree(categoryId,
+                () -> productRepository.findByCategoryIdIn(categoryTree.subtreeIds(categoryId)));
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/discount")
     public ResponseEntity<List<Product>> getDiscountProducts() {
-        List<Product> products = productRepository.findByDiscountCentsGreaterThan(0L);
+        List<Product> products = catalogCache.getDiscounted(() -> productRepository.findByDiscountCentsGreaterThan(0L));
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/available")
     public ResponseEntity<List<Product>> getAvailableProducts() {
-        List<Product> products = productRepository.findByInventoryGreaterThan(0);
+        List<Product> products = catalogCache.getAvailable(() -> productRepository.findByInventoryGreaterThan(0));
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/search")
     public ResponseEntity<List<Product>> searchProducts(
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Integer limit) {
         
         Long categoryId = null;
         try {
@@ -63,21 +120,83 @@ public class ProductController {
         }
         
         List<Product> products;
-        if (categoryId != null) {
+        if (search != null && !search.isBlank() && searchIndex.isReady()) {
+            int cap = limit != null ? limit : searchIndex.getMaxResults();
+            Set<Long> categoryIds = categoryId != null ? new HashSet<>(categoryTree.subtreeIds(categoryId)) : null;
+            products = findRanked(searchIndex.search(search, categoryIds, cap));
+        } else if (categoryId != null) {
+            List<Long> categoryIds = categoryTree.subtreeIds(categoryId);
             if (search != null && !search.isEmpty()) {
-                products = productRepository.findByCategoryAndSearch(categoryId, search);
+                products = productRepository.findByCategoryIdInAndSearch(categoryIds, search);
             } else {
-                products = productRepository.findByCategoryId(categoryId);
+                products = productRepository.findByCategoryIdIn(categoryIds);
             }
         } else if (search != null && !search.isEmpty()) {
             products = productRepository.findByNameOrDescriptionOrSkuContaining(search);
         } else {
-            products = productRepository.findAll();
+            int pageSize = pageSupport.size(limit);
+            return pageSupport.keysetResponse(getProductPage(null, pageSize), pageSize,
+                    product -> new Cursor(product.getCreatedAt(), product.getId()));
         }
         
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFacetPage> filterProducts(
+            @RequestParam(required = false) Long category,
+            @RequestParam(required = false) Long minPriceCents,
+            @RequestParam(required = false) Long maxPriceCents,
+            @RequestParam(defaultValue = "false") boolean discounted,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        if (!facetIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Los filtros del catálogo se están preparando, intente nuevamente en unos segundos");
+        }
+        ProductFacetQuery.Sort order;
+        try {
+            order = ProductFacetQuery.Sort.valueOf(sort.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Orden no válido: " + sort);
+        }
+
+        int pageSize = pageSupport.size(size);
+        int pageNumber = Math.max(page, 0);
+        ProductFacetQuery query = new ProductFacetQuery(category, minPriceCents, maxPriceCents, discounted, inStock, order);
+        // a page far past the end must not overflow into a negative offset, it just comes back empty
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+        ProductFacetIndex.Result result = facetIndex.query(query, offset, pageSize);
+        return ResponseEntity.ok(new ProductFacetPage(findRanked(result.productIds()), result.total(),
+                pageNumber, pageSize, result.facets()));
+    }
+
+    private List<Product> getProductPage(String cursor, int pageSize) {
+        return catalogCache.getPage(cursor, pageSize, () -> {
+            if (cursor == null) {
+                return productRepository.findFirstPage(pageSupport.keysetLimit(pageSize));
+            }
+            Cursor position = Cursor.decode(cursor);
+            return productRepository.findPageAfter(position.createdAt(), position.id(), pageSupport.keysetLimit(pageSize));
+        });
+    }
+
+    private List<Product> findRanked(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        List<Product> products = new ArrayList<>(productRepository.findAllById(rankedIds));
+        products.sort(Comparator.comparing(product -> rank.get(product.getId())));
+        return products;
+    }
+
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
         if (productRepository.existsByName(product.getName())) {
@@ -85,6 +204,7 @@ public class ProductController {
         }
         
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedProduct));
         return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
     }
 
@@ -96,6 +216,7 @@ public class ProductController {
         }
 
         Product product = optionalProduct.get();
+        ProductState before = ProductState.of(product);
         
         if (!product.getName().equals(productDetails.getName()) && 
             productRepository.existsByName(productDetails.getName())) {
@@ -108,34 +229,58 @@ public class ProductController {
         product.setCategory(productDetails.getCategory());
         product.setPriceCents(productDetails.getPriceCents());
         product.setDiscountCents(productDetails.getDiscountCents());
-        product.setInventory(productDetails.getInventory());
         product.setImageUrl(productDetails.getImageUrl());
+        // stock is not part of the product, it changes through PATCH /{id}/inventory only
 
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, updatedProduct));
         return ResponseEntity.ok(updatedProduct);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        if (!productRepository.existsById(id)) {
+        Optional<Product> optionalProduct = productRepository.findById(id);
+        if (optionalProduct.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
-        productRepository.deleteById(id);
+        productRepository.delete(optionalProduct.get());
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(optionalProduct.get()));
         return ResponseEntity.noContent().build();
     }
 
     @PatchMapping("/{id}/inventory")
-    public ResponseEntity<Product> updateInventory(@PathVariable Long id, @RequestParam Integer inventory) {
-        Optional<Product> optionalProduct = productRepository.findById(id);
-        if (optionalProduct.isEmpty()) {
+    public ResponseEntity<Product> updateInventory(@PathVariable Long id,
+                                                   @RequestParam(required = false) Integer inventory,
+                                                   @RequestParam(required = false) Integer delta) {
+        if (delta != null) {
+            return adjustInventory(id, delta);
+        }
+        if (inventory == null || inventory < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!inventoryService.set(id, inventory)) {
             return ResponseEntity.notFound().build();
         }
+        return stockChanged(id);
+    }
 
-        Product product = optionalProduct.get();
-        product.setInventory(inventory);
-        Product updatedProduct = productRepository.save(product);
-        
-        return ResponseEntity.ok(updatedProduct);
+    private ResponseEntity<Product> adjustInventory(Long id, int delta) {
+        if (!inventoryService.adjust(id, delta)) {
+            if (!productRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Stock insuficiente para el producto " + id);
+        }
+        return stockChanged(id);
+    }
+
+    private ResponseEntity<Product> stockChanged(Long id) {
+        Product product = productRepository.findById(id).orElseThrow();
+        ProductState after = ProductState.of(product);
+        // the product may have just sold out or come back, so the available list is dropped either way
+        ProductState before = new ProductState(after.id(), after.categoryId(), after.discounted(), true);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, product));
+        return ResponseEntity.ok(product);
     }
 }
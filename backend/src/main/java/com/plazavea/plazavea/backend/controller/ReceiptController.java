@@ -2,19 +2,39 @@ package com.plazavea.plazavea.backend.controller;
 
 import com.plazavea.plazavea.backend.model.Receipt;
 import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.pagination.Cursor;
+import com.plazavea.plazavea.backend.pagination.PageSupport;
+import com.plazavea.plazavea.backend.receipt.ReceiptArchiveService;
+import com.plazavea.plazavea.backend.receipt.ReceiptFileServer;
+import com.plazavea.plazavea.backend.receipt.ReceiptRenderer;
+import com.plazavea.plazavea.backend.receipt.ReceiptStatus;
 import com.plazavea.plazavea.backend.repository.ReceiptRepository;
 import com.plazavea.plazavea.backend.repository.OrderRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/receipts")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageSupport.NEXT_CURSOR_HEADER, PageSupport.TOTAL_COUNT_HEADER})
 public class ReceiptController {
 
     @Autowired
@@ -23,9 +43,50 @@ public class ReceiptController {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private PageSupport pageSupport;
+
+    @Autowired
+    private ReceiptRenderer receiptRenderer;
+
+    @Autowired
+    private ReceiptFileServer receiptFileServer;
+
+    @Autowired
+    private ReceiptArchiveService receiptArchiveService;
+
+    @Value("${receipts.notify-timeout:60s}")
+    private Duration notifyTimeout;
+
     @GetMapping
-    public List<Receipt> getAllReceipts() {
-        return receiptRepository.findAll();
+    public ResponseEntity<List<Receipt>> getAllReceipts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = pageSupport.size(size);
+        List<Receipt> receipts;
+        if (cursor == null) {
+            receipts = receiptRepository.findFirstPage(pageSupport.keysetLimit(pageSize));
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            receipts = receiptRepository.findPageAfter(position.createdAt(), position.id(), pageSupport.keysetLimit(pageSize));
+        }
+        return pageSupport.keysetResponse(receipts, pageSize, receipt -> new Cursor(receipt.getCreatedAt(), receipt.getId()));
+    }
+
+    // Every rendered receipt created in [from, to) as one ZIP, written while it is read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReceipts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La fecha inicial debe ser anterior a la final");
+        }
+
+        String filename = "boletas-" + from.toLocalDate() + "-" + to.toLocalDate() + ".zip";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> receiptArchiveService.writeArchive(from, to, out));
     }
 
     @GetMapping("/{id}")
@@ -47,6 +108,54 @@ public class ReceiptController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Writes the stored PDF straight from disk, see ReceiptFileServer for ranges and caching
+    @GetMapping("/order/{orderId}/pdf")
+    public void getReceiptPdf(@PathVariable Long orderId,
+                              @RequestParam(required = false) String v,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        receiptFileServer.serve(orderId, v, request, response);
+    }
+
+    @PostMapping("/order/{orderId}/render")
+    public ResponseEntity<ReceiptStatus> renderReceipt(@PathVariable Long orderId) {
+        if (!orderRepository.existsById(orderId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ReceiptStatus status = receiptRenderer.enqueue(orderId);
+        if (ReceiptRenderer.FAILED.equals(status.status())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(status);
+        }
+        return ResponseEntity.accepted().body(status);
+    }
+
+    @GetMapping("/order/{orderId}/status")
+    public ResponseEntity<ReceiptStatus> getReceiptStatus(@PathVariable Long orderId) {
+        return receiptRenderer.status(orderId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // One event when the receipt is ready or has failed, then the stream closes
+    @GetMapping(path = "/order/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter receiptEvents(@PathVariable Long orderId) {
+        CompletableFuture<ReceiptStatus> done = receiptRenderer.whenDone(orderId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "El pedido no tiene boleta en proceso"));
+
+        SseEmitter emitter = new SseEmitter(notifyTimeout.toMillis());
+        done.thenAccept(status -> {
+            try {
+                emitter.send(SseEmitter.event().name("receipt").data(status, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // the client left or the emitter timed out first
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
     @PostMapping
     public ResponseEntity<Receipt> createReceipt(@Valid @RequestBody Receipt receipt) {
         if (receipt.getOrder() != null && receipt.getOrder().getId() != null) {
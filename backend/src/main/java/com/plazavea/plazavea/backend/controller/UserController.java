@@ -1,7 +1,11 @@
 package com.plazavea.plazavea.backend.controller;
 
+import com.plazavea.plazavea.backend.cart.HotCartStore;
 import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.pagination.Cursor;
+import com.plazavea.plazavea.backend.pagination.PageSupport;
 import com.plazavea.plazavea.backend.repository.UserRepository;
+import com.plazavea.plazavea.backend.user.UserCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -12,27 +16,52 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/users")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageSupport.NEXT_CURSOR_HEADER, PageSupport.TOTAL_COUNT_HEADER})
 public class UserController {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PageSupport pageSupport;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private HotCartStore hotCarts;
+
     @GetMapping
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public ResponseEntity<List<User>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = pageSupport.size(size);
+        if (page != null) {
+            return pageSupport.offsetResponse(
+                    userRepository.findAll(pageSupport.offset(page, pageSize, PageSupport.NEWEST_FIRST)));
+        }
+
+        List<User> users;
+        if (cursor == null) {
+            users = userRepository.findFirstPage(pageSupport.keysetLimit(pageSize));
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            users = userRepository.findPageAfter(position.createdAt(), position.id(), pageSupport.keysetLimit(pageSize));
+        }
+        return pageSupport.keysetResponse(users, pageSize, user -> new Cursor(user.getCreatedAt(), user.getId()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        Optional<User> user = userRepository.findById(id);
+        Optional<User> user = userCache.getById(id, () -> userRepository.findById(id));
         return user.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        Optional<User> user = userRepository.findByEmail(email);
+        Optional<User> user = userCache.getByEmail(email, () -> userRepository.findByEmail(email));
         return user.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -50,13 +79,16 @@ public class UserController {
     public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody User userDetails) {
         return userRepository.findById(id)
                 .map(user -> {
+                    String previousEmail = user.getEmail();
                     user.setName(userDetails.getName());
                     user.setEmail(userDetails.getEmail());
                     user.setPhone(userDetails.getPhone());
                     if (userDetails.getPasswordHash() != null && !userDetails.getPasswordHash().isEmpty()) {
                         user.setPasswordHash(userDetails.getPasswordHash());
                     }
-                    return ResponseEntity.ok(userRepository.save(user));
+                    User updatedUser = userRepository.save(user);
+                    userCache.invalidate(id, previousEmail, updatedUser.getEmail());
+                    return ResponseEntity.ok(updatedUser);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -65,7 +97,9 @@ public class UserController {
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         return userRepository.findById(id)
                 .map(user -> {
+                    hotCarts.discardUser(id);
                     userRepository.delete(user);
+                    userCache.invalidate(id, user.getEmail(), null);
                     return ResponseEntity.ok().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,132 @@
+package com.plazavea.plazavea.backend.datasource;
+
+import com.plazavea.plazavea.backend.gateway.dto.PoolMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Samples every Hikari pool on a fixed interval. A pool is saturated while threads are queued for a connection
+// or the share of connections in use is at or above the threshold; entering and leaving that state is logged
+// and each entry counts one alarm. Wait times come from the hikaricp.connections.acquire timer Boot registers,
+// as the mean over the last interval and the timer's recent maximum.
+@Component
+public class ConnectionPoolMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolMonitor.class);
+
+    private static final String ACQUIRE_TIMER = "hikaricp.connections.acquire";
+
+    private final MeterRegistry meterRegistry;
+    private final double saturationThreshold;
+    private final List<PoolState> pools = new ArrayList<>();
+
+    public ConnectionPoolMonitor(List<HikariDataSource> dataSources,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${datasource.pools.saturation-threshold:0.9}") double saturationThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.saturationThreshold = saturationThreshold;
+        for (HikariDataSource dataSource : dataSources) {
+            PoolState pool = new PoolState(dataSource);
+            pool.alarms = Counter.builder("datasource.pool.saturation.alarms")
+                .description("Times the connection pool became saturated")
+                .tag("pool", pool.name)
+                .register(meterRegistry);
+            Gauge.builder("datasource.pool.saturated", pool, state -> state.saturated ? 1 : 0)
+                .description("1 while the connection pool is saturated")
+                .tag("pool", pool.name)
+                .register(meterRegistry);
+            pools.add(pool);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.pools.check-interval:10s}")
+    public synchronized void check() {
+        for (PoolState pool : pools) {
+            PoolMetrics sample = sample(pool);
+            pool.waitMeanMillis = intervalWaitMillis(pool);
+            boolean saturated = sample.getPending() > 0 || sample.getUtilization() >= saturationThreshold;
+            if (saturated && !pool.saturated) {
+                pool.alarms.increment();
+                log.warn("Connection pool {} saturated: {}/{} in use, {} waiting, mean wait {} ms", pool.name,
+                    sample.getActive(), sample.getMax(), sample.getPending(), String.format("%.1f", pool.waitMeanMillis));
+            } else if (!saturated && pool.saturated) {
+                log.info("Connection pool {} recovered: {}/{} in use", pool.name, sample.getActive(), sample.getMax());
+            }
+            pool.saturated = saturated;
+        }
+    }
+
+    public synchronized List<PoolMetrics> snapshot() {
+        List<PoolMetrics> snapshot = new ArrayList<>();
+        for (PoolState pool : pools) {
+            PoolMetrics metrics = sample(pool);
+            metrics.setWaitMeanMillis(pool.waitMeanMillis);
+            metrics.setSaturated(pool.saturated);
+            snapshot.add(metrics);
+        }
+        return snapshot;
+    }
+
+    private PoolMetrics sample(PoolState pool) {
+        PoolMetrics metrics = new PoolMetrics();
+        metrics.setName(pool.name);
+        metrics.setMax(pool.dataSource.getMaximumPoolSize());
+        // null until the pool has handed out its first connection
+        HikariPoolMXBean bean = pool.dataSource.getHikariPoolMXBean();
+        if (bean != null) {
+            metrics.setActive(bean.getActiveConnections());
+            metrics.setIdle(bean.getIdleConnections());
+            metrics.setPending(bean.getThreadsAwaitingConnection());
+            metrics.setTotal(bean.getTotalConnections());
+        }
+        metrics.setUtilization(metrics.getMax() > 0 ? (double) metrics.getActive() / metrics.getMax() : 0);
+        Timer acquire = acquireTimer(pool);
+        metrics.setWaitMaxMillis(acquire != null ? acquire.max(TimeUnit.MILLISECONDS) : 0);
+        return metrics;
+    }
+
+    private double intervalWaitMillis(PoolState pool) {
+        Timer acquire = acquireTimer(pool);
+        if (acquire == null) {
+            return 0;
+        }
+        long count = acquire.count();
+        double totalMillis = acquire.totalTime(TimeUnit.MILLISECONDS);
+        long acquired = count - pool.lastCount;
+        double mean = acquired > 0 ? (totalMillis - pool.lastTotalMillis) / acquired : 0;
+        pool.lastCount = count;
+        pool.lastTotalMillis = totalMillis;
+        return mean;
+    }
+
+    private Timer acquireTimer(PoolState pool) {
+        return meterRegistry.find(ACQUIRE_TIMER).tag("pool", pool.name).timer();
+    }
+
+    private static final class PoolState {
+        final HikariDataSource dataSource;
+        final String name;
+        Counter alarms;
+        volatile boolean saturated;
+        double waitMeanMillis;
+        long lastCount;
+        double lastTotalMillis;
+
+        PoolState(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.name = dataSource.getPoolName();
+        }
+    }
+}
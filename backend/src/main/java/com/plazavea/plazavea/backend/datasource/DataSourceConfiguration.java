@@ -0,0 +1,88 @@
+package com.plazavea.plazavea.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Request traffic, reports and (optionally) read-only transactions each get their own Hikari pool, so a long
+// export or a burst of order listings cannot drain the connections checkout needs. Every pool reuses the
+// spring.datasource driver and credentials unless its own url/username/password are set. Boot binds the
+// hikaricp.* meters for each pool, tagged with its pool name.
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource oltpDataSource(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(DataSourceRouting.OLTP);
+        return pool;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.reporting.hikari")
+    public HikariDataSource reportingDataSource(DataSourceProperties properties,
+                                                @Value("${datasource.reporting.url:}") String url,
+                                                @Value("${datasource.reporting.username:}") String username,
+                                                @Value("${datasource.reporting.password:}") String password) {
+        return pool(properties, DataSourceRouting.REPORTING, url, username, password);
+    }
+
+    // Replicas lag the primary, so a read-only transaction that follows a write may not see it yet. Anything
+    // that reads its own writes has to stay in a read-write transaction.
+    @Bean
+    @ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:}") String username,
+                                              @Value("${datasource.replica.password:}") String password) {
+        return pool(properties, DataSourceRouting.REPLICA, url, username, password);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("oltpDataSource") HikariDataSource oltp,
+                                 @Qualifier("reportingDataSource") HikariDataSource reporting,
+                                 @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replica) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceRouting.OLTP, oltp);
+        targets.put(DataSourceRouting.REPORTING, reporting);
+        HikariDataSource replicaPool = replica.getIfAvailable();
+        if (replicaPool != null) {
+            targets.put(DataSourceRouting.REPLICA, replicaPool);
+        }
+
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(replicaPool != null);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(oltp);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String name,
+                                         String url, String username, String password) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(name);
+        if (!url.isBlank()) {
+            pool.setJdbcUrl(url);
+        }
+        if (!username.isBlank()) {
+            pool.setUsername(username);
+            pool.setPassword(password);
+        }
+        return pool;
+    }
+}
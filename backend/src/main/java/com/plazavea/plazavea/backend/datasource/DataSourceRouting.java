@@ -0,0 +1,51 @@
+package com.plazavea.plazavea.backend.datasource;
+
+import java.util.function.Supplier;
+
+// Names the connection pools and marks work that belongs on the reporting pool. The mark is per thread, so
+// anything handed to another thread (an export body, an @Async method) has to open its own scope.
+public final class DataSourceRouting {
+
+    public static final String OLTP = "oltp";
+    public static final String REPORTING = "reporting";
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> REPORTING_SCOPE = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T reporting(Supplier<T> work) {
+        Boolean previous = enterReporting();
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void reporting(Runnable work) {
+        reporting(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    static Boolean enterReporting() {
+        Boolean previous = REPORTING_SCOPE.get();
+        REPORTING_SCOPE.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            REPORTING_SCOPE.remove();
+        } else {
+            REPORTING_SCOPE.set(previous);
+        }
+    }
+
+    static boolean isReporting() {
+        return REPORTING_SCOPE.get() != null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.plazavea.plazavea.backend.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Back-office listings (order and payment history) read on the reporting pool. Only GETs are routed, anything
+// that writes stays on the OLTP pool whatever its path.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class ReportingRouteFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<String> routes;
+
+    public ReportingRouteFilter(@Value("${datasource.reporting.routes:/api/orders/**,/api/payments/**}") String[] routes) {
+        this.routes = List.of(routes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return routes.stream().noneMatch(route -> PATH_MATCHER.match(route, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Boolean previous = DataSourceRouting.enterReporting();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.restore(previous);
+        }
+    }
+}
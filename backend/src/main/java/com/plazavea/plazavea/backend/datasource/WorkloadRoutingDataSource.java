@@ -0,0 +1,26 @@
+package com.plazavea.plazavea.backend.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Picks the pool when a physical connection is actually taken. It sits behind a LazyConnectionDataSourceProxy,
+// so by then the transaction has started and its read-only flag is known.
+class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final boolean replicaEnabled;
+
+    WorkloadRoutingDataSource(boolean replicaEnabled) {
+        this.replicaEnabled = replicaEnabled;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (DataSourceRouting.isReporting()) {
+            return DataSourceRouting.REPORTING;
+        }
+        if (replicaEnabled && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return DataSourceRouting.REPLICA;
+        }
+        return DataSourceRouting.OLTP;
+    }
+}
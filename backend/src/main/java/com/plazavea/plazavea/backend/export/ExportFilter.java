@@ -0,0 +1,5 @@
+package com.plazavea.plazavea.backend.export;
+
+import java.time.LocalDateTime;
+
+public record ExportFilter(LocalDateTime from, LocalDateTime to, String status) {}
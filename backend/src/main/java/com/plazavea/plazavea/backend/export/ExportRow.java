@@ -0,0 +1,6 @@
+package com.plazavea.plazavea.backend.export;
+
+public interface ExportRow {
+
+    Object[] csvValues();
+}
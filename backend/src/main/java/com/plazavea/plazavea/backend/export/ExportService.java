@@ -0,0 +1,102 @@
+package com.plazavea.plazavea.backend.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plazavea.plazavea.backend.datasource.DataSourceRouting;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+public class ExportService {
+
+    private static final String ORDERS_SELECT =
+        "SELECT new com.plazavea.plazavea.backend.export.OrderExportRow(" +
+        "o.id, u.id, o.status, o.totalCents, o.currency, o.paymentProvider, o.createdAt) " +
+        "FROM Order o LEFT JOIN o.user u";
+
+    private static final String PAYMENTS_SELECT =
+        "SELECT new com.plazavea.plazavea.backend.export.PaymentExportRow(" +
+        "p.id, o.id, p.provider, p.providerPaymentId, p.status, o.totalCents, o.currency, p.createdAt) " +
+        "FROM Payment p LEFT JOIN p.order o";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int flushInterval;
+
+    public ExportService(EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${export.fetch-size:1000}") int fetchSize,
+                         @Value("${export.flush-interval:1000}") int flushInterval) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.flushInterval = flushInterval;
+    }
+
+    public void exportOrders(ExportFilter filter, ExportFormat format, OutputStream out) {
+        export(ORDERS_SELECT, "o", OrderExportRow.class, OrderExportRow.CSV_HEADER, filter, format, out);
+    }
+
+    public void exportPayments(ExportFilter filter, ExportFormat format, OutputStream out) {
+        export(PAYMENTS_SELECT, "p", PaymentExportRow.class, PaymentExportRow.CSV_HEADER, filter, format, out);
+    }
+
+    private <T extends ExportRow> void export(String select, String alias, Class<T> rowType, String[] csvHeader,
+                                              ExportFilter filter, ExportFormat format, OutputStream out) {
+        StringBuilder jpql = new StringBuilder(select).append(" WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.status() != null && !filter.status().isBlank()) {
+            jpql.append(" AND ").append(alias).append(".status = :status");
+            parameters.put("status", filter.status());
+        }
+        if (filter.from() != null) {
+            jpql.append(" AND ").append(alias).append(".createdAt >= :from");
+            parameters.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND ").append(alias).append(".createdAt < :to");
+            parameters.put("to", filter.to());
+        }
+        jpql.append(" ORDER BY ").append(alias).append(".id");
+
+        // export bodies are written on the async executor, outside the request's reporting scope
+        DataSourceRouting.reporting(() -> readOnlyTransaction.executeWithoutResult(status -> {
+            TypedQuery<T> query = entityManager.createQuery(jpql.toString(), rowType)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true);
+            parameters.forEach(query::setParameter);
+
+            try (Stream<T> rows = query.getResultStream();
+                 ExportWriter writer = ExportWriter.open(format, out, objectMapper, csvHeader)) {
+                long written = 0;
+                Iterator<T> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                    if (++written % flushInterval == 0) {
+                        writer.flush();
+                        entityManager.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+}
@@ -0,0 +1,97 @@
+package com.plazavea.plazavea.backend.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Writes rows one at a time so nothing but the current row is kept in memory
+final class ExportWriter implements Closeable {
+
+    private final JsonGenerator jsonGenerator;
+    private final SequenceWriter jsonWriter;
+    private final Writer csvWriter;
+    private boolean wroteRow;
+
+    private ExportWriter(JsonGenerator jsonGenerator, SequenceWriter jsonWriter, Writer csvWriter) {
+        this.jsonGenerator = jsonGenerator;
+        this.jsonWriter = jsonWriter;
+        this.csvWriter = csvWriter;
+    }
+
+    static ExportWriter open(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+                             String[] csvHeader) throws IOException {
+        if (format == ExportFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeCsvLine(writer, csvHeader);
+            return new ExportWriter(null, null, writer);
+        }
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        SequenceWriter sequence = objectMapper.writer().withRootValueSeparator("\n").writeValues(generator);
+        return new ExportWriter(generator, sequence, null);
+    }
+
+    void write(ExportRow row) throws IOException {
+        if (csvWriter != null) {
+            writeCsvLine(csvWriter, row.csvValues());
+        } else {
+            jsonWriter.write(row);
+        }
+        wroteRow = true;
+    }
+
+    void flush() throws IOException {
+        if (csvWriter != null) {
+            csvWriter.flush();
+        } else {
+            jsonWriter.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csvWriter != null) {
+            csvWriter.flush();
+        } else {
+            jsonWriter.close();
+            // the sequence only separates records, the last one still needs its terminator; no records, no lines
+            if (wroteRow) {
+                jsonGenerator.writeRaw('\n');
+            }
+            jsonGenerator.close();
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeCsvValue(writer, values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
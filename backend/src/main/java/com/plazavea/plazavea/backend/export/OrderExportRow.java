@@ -0,0 +1,14 @@
+package com.plazavea.plazavea.backend.export;
+
+import java.time.LocalDateTime;
+
+public record OrderExportRow(Long id, Long userId, String status, Long totalCents, String currency,
+                             String paymentProvider, LocalDateTime createdAt) implements ExportRow {
+
+    static final String[] CSV_HEADER = {"id", "userId", "status", "totalCents", "currency", "paymentProvider", "createdAt"};
+
+    @Override
+    public Object[] csvValues() {
+        return new Object[] {id, userId, status, totalCents, currency, paymentProvider, createdAt};
+    }
+}
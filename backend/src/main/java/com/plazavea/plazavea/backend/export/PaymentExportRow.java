@@ -0,0 +1,15 @@
+package com.plazavea.plazavea.backend.export;
+
+import java.time.LocalDateTime;
+
+public record PaymentExportRow(Long id, Long orderId, String provider, String providerPaymentId, String status,
+                               Long orderTotalCents, String currency, LocalDateTime createdAt) implements ExportRow {
+
+    static final String[] CSV_HEADER = {"id", "orderId", "provider", "providerPaymentId", "status",
+        "orderTotalCents", "currency", "createdAt"};
+
+    @Override
+    public Object[] csvValues() {
+        return new Object[] {id, orderId, provider, providerPaymentId, status, orderTotalCents, currency, createdAt};
+    }
+}
@@ -0,0 +1,174 @@
+package com.plazavea.plazavea.backend.gateway;
+
+import com.plazavea.plazavea.backend.gateway.dto.TelemetryEvent;
+import com.plazavea.plazavea.backend.gateway.dto.TelemetryResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Client-reported events are queued on a lock-free ring and turned into meters by one background thread,
+// so a telemetry POST costs the request thread a few CAS operations per event
+@Service
+public class ClientTelemetryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientTelemetryService.class);
+
+    public static final String TYPE_REQUEST = "request";
+    public static final String TYPE_ERROR = "error";
+    public static final String TYPE_DURATION = "duration";
+
+    private static final String UNKNOWN_ROUTE = "other";
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final GatewayMetricsService metricsService;
+    private final GatewayRoutes gatewayRoutes;
+    private final MeterRegistry meterRegistry;
+    private final TelemetryRingBuffer<TelemetryEvent> buffer;
+    private final int maxBatchSize;
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter invalid;
+
+    // only touched by the consumer thread
+    private final Map<String, Counter> eventCounters = new HashMap<>();
+    private final Map<String, Timer> durationTimers = new HashMap<>();
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    public ClientTelemetryService(GatewayMetricsService metricsService,
+                                  GatewayRoutes gatewayRoutes,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${gateway.telemetry.buffer-size:8192}") int bufferSize,
+                                  @Value("${gateway.telemetry.max-batch-size:500}") int maxBatchSize) {
+        this.metricsService = metricsService;
+        this.gatewayRoutes = gatewayRoutes;
+        this.meterRegistry = meterRegistry;
+        this.buffer = new TelemetryRingBuffer<>(bufferSize);
+        this.maxBatchSize = maxBatchSize;
+        this.accepted = Counter.builder("gateway.telemetry.accepted")
+            .description("Client telemetry events queued for recording")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("gateway.telemetry.dropped")
+            .description("Client telemetry events dropped because the buffer was full")
+            .register(meterRegistry);
+        this.invalid = Counter.builder("gateway.telemetry.invalid")
+            .description("Client telemetry events rejected as malformed")
+            .register(meterRegistry);
+        Gauge.builder("gateway.telemetry.buffered", buffer, TelemetryRingBuffer::size)
+            .description("Client telemetry events waiting to be recorded")
+            .register(meterRegistry);
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public TelemetryResult ingest(List<TelemetryEvent> events) {
+        int queued = 0;
+        int full = 0;
+        int malformed = 0;
+        for (TelemetryEvent event : events) {
+            if (!isValid(event)) {
+                malformed++;
+            } else if (full > 0 || !buffer.offer(event)) {
+                // once the ring is full the rest of the batch is dropped rather than retried
+                full++;
+            } else {
+                queued++;
+            }
+        }
+        accepted.increment(queued);
+        dropped.increment(full);
+        invalid.increment(malformed);
+        return new TelemetryResult(queued, full, malformed);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        consumer = new Thread(this::consume, "gateway-telemetry-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void consume() {
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not record client telemetry", e);
+            }
+        }
+        drain();
+    }
+
+    private int drain() {
+        int drained = 0;
+        TelemetryEvent event;
+        while (drained < DRAIN_BATCH && (event = buffer.poll()) != null) {
+            record(event);
+            drained++;
+        }
+        return drained;
+    }
+
+    private void record(TelemetryEvent event) {
+        String route = gatewayRoutes.routeFor(event.getRoute());
+        String tagRoute = route != null ? route : UNKNOWN_ROUTE;
+        switch (event.getType()) {
+            case TYPE_REQUEST -> metricsService.recordRequest();
+            case TYPE_ERROR -> metricsService.recordError();
+            default -> {
+                metricsService.recordRequestDuration(event.getDurationMs());
+                durationTimers.computeIfAbsent(tagRoute, key -> Timer.builder("gateway.client.duration")
+                        .description("Request durations reported by clients")
+                        .tag("route", key)
+                        .tag("service", gatewayRoutes.serviceFor(route))
+                        .register(meterRegistry))
+                    .record(event.getDurationMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+        eventCounters.computeIfAbsent(event.getType() + ' ' + tagRoute, key -> Counter.builder("gateway.client.events")
+                .description("Events reported by clients")
+                .tag("type", event.getType())
+                .tag("route", tagRoute)
+                .tag("service", gatewayRoutes.serviceFor(route))
+                .register(meterRegistry))
+            .increment();
+    }
+
+    private static boolean isValid(TelemetryEvent event) {
+        if (event == null || event.getType() == null) {
+            return false;
+        }
+        return switch (event.getType()) {
+            case TYPE_REQUEST, TYPE_ERROR -> true;
+            case TYPE_DURATION -> event.getDurationMs() != null && event.getDurationMs() >= 0;
+            default -> false;
+        };
+    }
+}
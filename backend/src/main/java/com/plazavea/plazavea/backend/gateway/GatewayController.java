@@ -2,10 +2,18 @@ package com.plazavea.plazavea.backend.gateway;
 
 import com.plazavea.plazavea.backend.gateway.dto.GatewayMetrics;
 import com.plazavea.plazavea.backend.gateway.dto.RouteInfo;
+import com.plazavea.plazavea.backend.gateway.dto.TelemetryEvent;
+import com.plazavea.plazavea.backend.gateway.dto.TelemetryResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
@@ -16,9 +24,18 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class GatewayController {
 
+    static final String ADMIN_TOKEN_HEADER = "X-Gateway-Token";
+
     @Autowired
     private GatewayMetricsService metricsService;
 
+    @Autowired
+    private ClientTelemetryService telemetryService;
+
+    // route changes are refused unless this is set and the caller sends it back
+    @Value("${gateway.admin-token:}")
+    private String adminToken;
+
     @GetMapping("/metrics")
     public ResponseEntity<GatewayMetrics> getGatewayMetrics() {
         GatewayMetrics metrics = metricsService.getCurrentMetrics();
@@ -31,6 +48,18 @@ public class GatewayController {
         return ResponseEntity.ok(routes);
     }
 
+    @PutMapping("/routes")
+    public ResponseEntity<RouteInfo> updateRoute(@RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token,
+                                                 @RequestBody RouteInfo route) {
+        checkAdminToken(token);
+        if (route.getPath() == null || route.getRateLimit() < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return metricsService.updateRoute(route)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
         Map<String, Object> health = new HashMap<>();
@@ -57,4 +86,30 @@ public class GatewayController {
         metricsService.recordRequestDuration(duration);
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/telemetry")
+    public ResponseEntity<TelemetryResult> recordTelemetry(@RequestBody List<TelemetryEvent> events) {
+        if (events.size() > telemetryService.getMaxBatchSize()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+
+        TelemetryResult result = telemetryService.ingest(events);
+        if (result.getAccepted() == 0 && result.getDropped() > 0) {
+            // the buffer is full, ask the client to hold its batch for a moment
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(result);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    private void checkAdminToken(String token) {
+        if (adminToken.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "La administración de rutas está deshabilitada");
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token de administración no válido");
+        }
+    }
 }
@@ -1,8 +1,10 @@
 package com.plazavea.plazavea.backend.gateway;
 
+import com.plazavea.plazavea.backend.datasource.ConnectionPoolMonitor;
 import com.plazavea.plazavea.backend.gateway.dto.GatewayMetrics;
 import com.plazavea.plazavea.backend.gateway.dto.ServiceStatus;
 import com.plazavea.plazavea.backend.gateway.dto.RouteInfo;
+import com.plazavea.plazavea.backend.gateway.dto.RouteMetrics;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
@@ -15,13 +17,31 @@ import java.util.*;
 @Service
 public class GatewayMetricsService {
 
+    private static final int RECENT_SLICES = 2;
+    private static final double DEGRADED_ERROR_RATE = 5;
+    private static final double DOWN_ERROR_RATE = 50;
+    private static final double DEGRADED_P95_MILLIS = 1000;
+    private static final String STATUS_HEALTHY = "healthy";
+    private static final String STATUS_DEGRADED = "degraded";
+    private static final String STATUS_DOWN = "down";
+
     private final MeterRegistry meterRegistry;
+    private final GatewayRoutes gatewayRoutes;
+    private final GatewayRequestMetrics requestMetrics;
+    private final ConnectionPoolMonitor poolMonitor;
     private final Counter requestCounter;
     private final Counter errorCounter;
     private final Timer requestTimer;
 
-    public GatewayMetricsService(MeterRegistry meterRegistry) {
+    public GatewayMetricsService(MeterRegistry meterRegistry,
+                                 GatewayRoutes gatewayRoutes,
+                                 GatewayRequestMetrics requestMetrics,
+                                 ConnectionPoolMonitor poolMonitor) {
         this.meterRegistry = meterRegistry;
+        this.gatewayRoutes = gatewayRoutes;
+        this.requestMetrics = requestMetrics;
+        this.poolMonitor = poolMonitor;
+        // the record-* endpoints below count what browsers report, server-side timing is in GatewayRequestMetrics
         this.requestCounter = Counter.builder("gateway.requests.total")
             .description("Total number of requests")
             .register(meterRegistry);
@@ -34,113 +54,118 @@ public class GatewayMetricsService {
     }
 
     public GatewayMetrics getCurrentMetrics() {
+        long epoch = requestMetrics.currentEpoch();
+        long[] recent = LatencyWindow.newHistogram();
+        long[] lastMinute = LatencyWindow.newHistogram();
+        for (RouteStats stats : requestMetrics.getRouteStats()) {
+            stats.window.collect(epoch, RECENT_SLICES, recent);
+            stats.window.collect(epoch, LatencyWindow.SLICES, lastMinute);
+        }
+        long requests = LatencyWindow.requests(lastMinute);
+
         GatewayMetrics metrics = new GatewayMetrics();
-        metrics.setRequestsPerSecond(calculateRPS());
-        metrics.setActiveConnections(getActiveConnections());
-        metrics.setErrorRate(calculateErrorRate());
-        metrics.setAvgLatency(getAverageLatency());
-        metrics.setServices(getServicesStatus());
+        metrics.setRequestsPerSecond(LatencyWindow.requests(recent) / requestMetrics.windowSeconds(RECENT_SLICES));
+        metrics.setRequestsPerSecondLastMinute(requests / requestMetrics.windowSeconds(LatencyWindow.SLICES));
+        metrics.setActiveConnections((int) requestMetrics.getInFlight());
+        metrics.setErrorRate(errorRate(lastMinute, requests));
+        metrics.setAvgLatency(LatencyWindow.meanMillis(lastMinute, requests));
+        metrics.setP50Latency(LatencyWindow.percentileMillis(lastMinute, requests, 0.50));
+        metrics.setP95Latency(LatencyWindow.percentileMillis(lastMinute, requests, 0.95));
+        metrics.setP99Latency(LatencyWindow.percentileMillis(lastMinute, requests, 0.99));
+        metrics.setServices(getServicesStatus(epoch));
+        metrics.setRoutes(getRouteMetrics(epoch));
+        metrics.setPools(poolMonitor.snapshot());
         return metrics;
     }
 
     public List<RouteInfo> getActiveRoutes() {
-        List<RouteInfo> routes = new ArrayList<>();
-        
-        RouteInfo productsRoute = new RouteInfo();
-        productsRoute.setPath("/api/products/**");
-        productsRoute.setService("catalog-service");
-        productsRoute.setMethod("GET,POST,PUT,DELETE");
-        productsRoute.setEnabled(true);
-        productsRoute.setRateLimit(1000);
-        routes.add(productsRoute);
-        
-        RouteInfo authRoute = new RouteInfo();
-        authRoute.setPath("/api/auth/**");
-        authRoute.setService("auth-service");
-        authRoute.setMethod("POST");
-        authRoute.setEnabled(true);
-        authRoute.setRateLimit(100);
-        routes.add(authRoute);
-        
-        RouteInfo usersRoute = new RouteInfo();
-        usersRoute.setPath("/api/users/**");
-        usersRoute.setService("user-service");
-        usersRoute.setMethod("GET,POST,PUT");
-        usersRoute.setEnabled(true);
-        usersRoute.setRateLimit(500);
-        routes.add(usersRoute);
-        
-        RouteInfo ordersRoute = new RouteInfo();
-        ordersRoute.setPath("/api/orders/**");
-        ordersRoute.setService("sales-service");
-        ordersRoute.setMethod("GET,POST,PUT");
-        ordersRoute.setEnabled(true);
-        ordersRoute.setRateLimit(200);
-        routes.add(ordersRoute);
-        
-        return routes;
+        return gatewayRoutes.getRoutes();
+    }
+
+    public Optional<RouteInfo> updateRoute(RouteInfo route) {
+        return gatewayRoutes.update(route);
     }
 
     public Map<String, Object> getServicesHealth() {
         Map<String, Object> health = new HashMap<>();
-        health.put("catalog-service", "UP");
-        health.put("auth-service", "UP");
-        health.put("user-service", "UP");
-        health.put("sales-service", "UP");
+        for (ServiceStatus service : getServicesStatus(requestMetrics.currentEpoch())) {
+            health.put(service.getName(), STATUS_DOWN.equals(service.getStatus()) ? "DOWN" : "UP");
+        }
         health.put("timestamp", Instant.now());
         return health;
     }
 
-    private double calculateRPS() {
-        return Math.random() * 50 + 10;
-    }
+    // Latency and error rate over the last minute of traffic, a service with no traffic is reported healthy
+    private List<ServiceStatus> getServicesStatus(long epoch) {
+        Map<String, long[]> histograms = new LinkedHashMap<>();
+        for (RouteInfo route : gatewayRoutes.getRoutes()) {
+            histograms.computeIfAbsent(route.getService(), service -> LatencyWindow.newHistogram());
+        }
+        for (RouteStats stats : requestMetrics.getRouteStats()) {
+            long[] histogram = histograms.get(stats.getService());
+            if (histogram != null) {
+                stats.window.collect(epoch, LatencyWindow.SLICES, histogram);
+            }
+        }
 
-    private int getActiveConnections() {
-        return (int) (Math.random() * 100 + 50);
-    }
-
-    private double calculateErrorRate() {
-        double totalRequests = requestCounter.count();
-        double errors = errorCounter.count();
-        return totalRequests > 0 ? (errors / totalRequests) * 100 : Math.random() * 2;
+        List<ServiceStatus> services = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : histograms.entrySet()) {
+            long[] histogram = entry.getValue();
+            long requests = LatencyWindow.requests(histogram);
+            double errorRate = errorRate(histogram, requests);
+
+            ServiceStatus service = new ServiceStatus();
+            service.setName(entry.getKey());
+            service.setRequests((int) Math.min(Integer.MAX_VALUE, requests));
+            service.setLatency(LatencyWindow.meanMillis(histogram, requests));
+            if (errorRate >= DOWN_ERROR_RATE) {
+                service.setStatus(STATUS_DOWN);
+            } else if (errorRate >= DEGRADED_ERROR_RATE
+                    || LatencyWindow.percentileMillis(histogram, requests, 0.95) >= DEGRADED_P95_MILLIS) {
+                service.setStatus(STATUS_DEGRADED);
+            } else {
+                service.setStatus(STATUS_HEALTHY);
+            }
+            services.add(service);
+        }
+        return services;
     }
 
-    private double getAverageLatency() {
-        return requestTimer != null ? requestTimer.mean(java.util.concurrent.TimeUnit.MILLISECONDS) : Math.random() * 100 + 20;
+    private List<RouteMetrics> getRouteMetrics(long epoch) {
+        double windowSeconds = requestMetrics.windowSeconds(LatencyWindow.SLICES);
+        List<RouteMetrics> routes = new ArrayList<>();
+        for (RouteStats stats : requestMetrics.getRouteStats()) {
+            long[] histogram = LatencyWindow.newHistogram();
+            stats.window.collect(epoch, LatencyWindow.SLICES, histogram);
+            long requests = LatencyWindow.requests(histogram);
+
+            Map<String, Long> statusCounts = new LinkedHashMap<>();
+            for (int i = 0; i < RouteStats.STATUS_CLASSES.length; i++) {
+                long count = stats.statusCounts[i].sum();
+                if (count > 0) {
+                    statusCounts.put(RouteStats.STATUS_CLASSES[i], count);
+                }
+            }
+
+            RouteMetrics route = new RouteMetrics();
+            route.setPath(stats.getPath());
+            route.setMethod(stats.getMethod());
+            route.setService(stats.getService());
+            route.setTotalRequests(stats.requests.sum());
+            route.setRequestsPerSecond(requests / windowSeconds);
+            route.setErrorRate(errorRate(histogram, requests));
+            route.setP50Latency(LatencyWindow.percentileMillis(histogram, requests, 0.50));
+            route.setP95Latency(LatencyWindow.percentileMillis(histogram, requests, 0.95));
+            route.setP99Latency(LatencyWindow.percentileMillis(histogram, requests, 0.99));
+            route.setStatusCounts(statusCounts);
+            routes.add(route);
+        }
+        routes.sort(Comparator.comparingLong(RouteMetrics::getTotalRequests).reversed());
+        return routes;
     }
 
-    private List<ServiceStatus> getServicesStatus() {
-        List<ServiceStatus> services = new ArrayList<>();
-        
-        ServiceStatus catalogService = new ServiceStatus();
-        catalogService.setName("catalog-service");
-        catalogService.setStatus("healthy");
-        catalogService.setRequests((int) (Math.random() * 1000 + 500));
-        catalogService.setLatency(Math.random() * 50 + 20);
-        services.add(catalogService);
-        
-        ServiceStatus authService = new ServiceStatus();
-        authService.setName("auth-service");
-        authService.setStatus("healthy");
-        authService.setRequests((int) (Math.random() * 200 + 100));
-        authService.setLatency(Math.random() * 30 + 10);
-        services.add(authService);
-        
-        ServiceStatus userService = new ServiceStatus();
-        userService.setName("user-service");
-        userService.setStatus("healthy");
-        userService.setRequests((int) (Math.random() * 300 + 150));
-        userService.setLatency(Math.random() * 40 + 15);
-        services.add(userService);
-        
-        ServiceStatus salesService = new ServiceStatus();
-        salesService.setName("sales-service");
-        salesService.setStatus("healthy");
-        salesService.setRequests((int) (Math.random() * 400 + 200));
-        salesService.setLatency(Math.random() * 60 + 25);
-        services.add(salesService);
-        
-        return services;
+    private static double errorRate(long[] histogram, long requests) {
+        return requests > 0 ? (LatencyWindow.errors(histogram) * 100.0) / requests : 0;
     }
 
     public void recordRequest() {
@@ -0,0 +1,102 @@
+package com.plazavea.plazavea.backend.gateway;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class GatewayRequestMetrics {
+
+    static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE", "OTHER"};
+
+    private final GatewayRoutes gatewayRoutes;
+    private final MeterRegistry meterRegistry;
+    // route templates come from the handler mappings, so this map stays as small as the API
+    private final ConcurrentHashMap<String, AtomicReferenceArray<RouteStats>> routes = new ConcurrentHashMap<>();
+    private final LongAdder inFlight = new LongAdder();
+    private final long origin = System.nanoTime();
+
+    public GatewayRequestMetrics(GatewayRoutes gatewayRoutes, MeterRegistry meterRegistry) {
+        this.gatewayRoutes = gatewayRoutes;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.http.requests.active", inFlight, LongAdder::sum)
+            .description("Requests currently being handled")
+            .register(meterRegistry);
+    }
+
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    public void requestFinished(String routeTemplate, String method, int status, long startNanos) {
+        long now = System.nanoTime();
+        inFlight.decrement();
+        String route = routeTemplate != null ? routeTemplate : UNMATCHED_ROUTE;
+        int methodIndex = methodIndex(method);
+
+        AtomicReferenceArray<RouteStats> byMethod = routes.get(route);
+        if (byMethod == null) {
+            byMethod = routes.computeIfAbsent(route, key -> new AtomicReferenceArray<>(METHODS.length));
+        }
+        RouteStats stats = byMethod.get(methodIndex);
+        if (stats == null) {
+            RouteStats created = new RouteStats(route, METHODS[methodIndex], gatewayRoutes.serviceFor(route), meterRegistry);
+            stats = byMethod.compareAndSet(methodIndex, null, created) ? created : byMethod.get(methodIndex);
+        }
+        stats.record(status, now - startNanos, epoch(now));
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    List<RouteStats> getRouteStats() {
+        List<RouteStats> all = new ArrayList<>();
+        for (AtomicReferenceArray<RouteStats> byMethod : routes.values()) {
+            for (int i = 0; i < byMethod.length(); i++) {
+                RouteStats stats = byMethod.get(i);
+                if (stats != null) {
+                    all.add(stats);
+                }
+            }
+        }
+        return all;
+    }
+
+    long currentEpoch() {
+        return epoch(System.nanoTime());
+    }
+
+    // Seconds covered by the newest sliceCount slices, shorter while the application is still warming up
+    double windowSeconds(int sliceCount) {
+        long elapsed = System.nanoTime() - origin;
+        long covered = (sliceCount - 1) * LatencyWindow.SLICE_NANOS + elapsed % LatencyWindow.SLICE_NANOS;
+        return Math.max(1, Math.min(elapsed, covered)) / 1_000_000_000.0;
+    }
+
+    private long epoch(long nanos) {
+        return (nanos - origin) / LatencyWindow.SLICE_NANOS;
+    }
+
+    private static int methodIndex(String method) {
+        switch (method) {
+            case "GET": return 0;
+            case "HEAD": return 1;
+            case "POST": return 2;
+            case "PUT": return 3;
+            case "PATCH": return 4;
+            case "DELETE": return 5;
+            case "OPTIONS": return 6;
+            case "TRACE": return 7;
+            default: return 8;
+        }
+    }
+}
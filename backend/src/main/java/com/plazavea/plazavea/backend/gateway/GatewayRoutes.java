@@ -0,0 +1,115 @@
+package com.plazavea.plazavea.backend.gateway;
+
+import com.plazavea.plazavea.backend.gateway.dto.RouteInfo;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Route table shared by the metrics and rate limiting filters. Changes swap in a new immutable
+// snapshot, so requests in flight keep the table they started with and nothing needs a restart.
+@Component
+public class GatewayRoutes {
+
+    public static final String GATEWAY_SERVICE = "gateway";
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    // a lock rather than synchronized so a virtual thread waiting on it does not pin its carrier
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile List<Route> routes = List.of(
+        new Route("/api/products/**", "catalog-service", "GET,POST,PUT,DELETE", true, 1000),
+        new Route("/api/categories/**", "catalog-service", "GET,POST,PUT,DELETE", true, 1000),
+        new Route("/api/stream/**", "catalog-service", "GET", true, 1000),
+        new Route("/api/auth/**", "auth-service", "POST", true, 100),
+        new Route("/api/users/**", "user-service", "GET,POST,PUT", true, 500),
+        new Route("/api/orders/**", "sales-service", "GET,POST,PUT", true, 200),
+        new Route("/api/carts/**", "sales-service", "GET,POST,PUT,DELETE", true, 200),
+        new Route("/api/payments/**", "sales-service", "GET,POST,PUT,DELETE", true, 200),
+        new Route("/api/receipts/**", "sales-service", "GET,POST,PUT,DELETE", true, 200),
+        new Route("/api/gateway/**", GATEWAY_SERVICE, "GET,POST,PUT", true, 300));
+
+    public List<RouteInfo> getRoutes() {
+        List<RouteInfo> routeInfos = new ArrayList<>();
+        for (Route route : routes) {
+            routeInfos.add(route.toRouteInfo());
+        }
+        return routeInfos;
+    }
+
+    // Changes the rate limit and enabled flag of an existing route, the path identifies it
+    public Optional<RouteInfo> update(RouteInfo changes) {
+        updateLock.lock();
+        try {
+            List<Route> updated = new ArrayList<>(routes);
+            for (int i = 0; i < updated.size(); i++) {
+                Route route = updated.get(i);
+                if (route.path().equals(changes.getPath())) {
+                    Route replacement = new Route(route.path(), route.service(), route.methods(),
+                        changes.isEnabled(), changes.getRateLimit());
+                    updated.set(i, replacement);
+                    routes = List.copyOf(updated);
+                    return Optional.of(replacement.toRouteInfo());
+                }
+            }
+            return Optional.empty();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    // Resolves the service group of a path or route template, anything not routed belongs to the gateway itself
+    public String serviceFor(String path) {
+        Route route = match(path);
+        return route != null ? route.service() : GATEWAY_SERVICE;
+    }
+
+    // The configured route pattern covering a path, null when no route does
+    public String routeFor(String path) {
+        Route route = match(path);
+        return route != null ? route.path() : null;
+    }
+
+    Route match(String path) {
+        if (path != null) {
+            for (Route route : routes) {
+                if (route.matches(path)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    record Route(String path, String service, String methods, boolean enabled, int rateLimit, String prefix) {
+
+        Route(String path, String service, String methods, boolean enabled, int rateLimit) {
+            // "/api/x/**" patterns are checked as plain prefixes, the common case on the request path
+            this(path, service, methods, enabled, rateLimit,
+                path.endsWith("/**") && !PATH_MATCHER.isPattern(path.substring(0, path.length() - 3))
+                    ? path.substring(0, path.length() - 3) : null);
+        }
+
+        boolean matches(String requestPath) {
+            if (prefix != null) {
+                return requestPath.startsWith(prefix)
+                    && (requestPath.length() == prefix.length() || requestPath.charAt(prefix.length()) == '/');
+            }
+            return PATH_MATCHER.match(path, requestPath);
+        }
+
+        RouteInfo toRouteInfo() {
+            RouteInfo route = new RouteInfo();
+            route.setPath(path);
+            route.setService(service);
+            route.setMethod(methods);
+            route.setEnabled(enabled);
+            route.setRateLimit(rateLimit);
+            return route;
+        }
+    }
+}
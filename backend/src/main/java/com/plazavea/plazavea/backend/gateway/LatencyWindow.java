@@ -0,0 +1,128 @@
+package com.plazavea.plazavea.backend.gateway;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Log-linear latency histogram over a sliding window of fixed time slices. Recording is a couple of
+// atomic increments into preallocated arrays; the slice being reused is cleared by whichever request
+// rotates into it first, so a handful of samples racing that reset can be dropped.
+final class LatencyWindow {
+
+    static final long SLICE_NANOS = TimeUnit.SECONDS.toNanos(5);
+    static final int SLICES = 12;
+
+    // 8 linear sub-buckets per power of two of microseconds, about 12% relative error up to hours
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = 36 * SUB_BUCKETS;
+
+    private static final int ERRORS = BUCKETS;
+    private static final int SLOT_LENGTH = BUCKETS + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLICES * SLOT_LENGTH);
+    private final AtomicLongArray sliceEpochs = new AtomicLongArray(SLICES);
+
+    LatencyWindow() {
+        for (int i = 0; i < SLICES; i++) {
+            sliceEpochs.set(i, -1);
+        }
+    }
+
+    void record(long epoch, long durationNanos, boolean error) {
+        int slice = (int) (epoch % SLICES);
+        long current = sliceEpochs.get(slice);
+        if (current != epoch) {
+            if (current > epoch || !sliceEpochs.compareAndSet(slice, current, epoch)) {
+                if (sliceEpochs.get(slice) != epoch) {
+                    return;
+                }
+            } else {
+                int base = slice * SLOT_LENGTH;
+                for (int i = 0; i < SLOT_LENGTH; i++) {
+                    counts.set(base + i, 0);
+                }
+            }
+        }
+
+        int base = slice * SLOT_LENGTH;
+        counts.incrementAndGet(base + bucket(durationNanos));
+        if (error) {
+            counts.incrementAndGet(base + ERRORS);
+        }
+    }
+
+    // Adds the newest sliceCount slices into histogram, the last element receives the error count
+    void collect(long epoch, int sliceCount, long[] histogram) {
+        for (int slice = 0; slice < SLICES; slice++) {
+            long sliceEpoch = sliceEpochs.get(slice);
+            if (sliceEpoch < 0 || sliceEpoch > epoch || sliceEpoch <= epoch - sliceCount) {
+                continue;
+            }
+            int base = slice * SLOT_LENGTH;
+            for (int i = 0; i < SLOT_LENGTH; i++) {
+                histogram[i] += counts.get(base + i);
+            }
+        }
+    }
+
+    static long[] newHistogram() {
+        return new long[SLOT_LENGTH];
+    }
+
+    static long requests(long[] histogram) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += histogram[i];
+        }
+        return total;
+    }
+
+    static long errors(long[] histogram) {
+        return histogram[ERRORS];
+    }
+
+    static double percentileMillis(long[] histogram, long requests, double percentile) {
+        if (requests == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(requests * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return midpointMicros(i) / 1000.0;
+            }
+        }
+        return midpointMicros(BUCKETS - 1) / 1000.0;
+    }
+
+    static double meanMillis(long[] histogram, long requests) {
+        if (requests == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            sum += histogram[i] * midpointMicros(i);
+        }
+        return sum / requests / 1000.0;
+    }
+
+    static int bucket(long durationNanos) {
+        long micros = durationNanos / 1000;
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKETS - 1, (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket);
+    }
+
+    private static double midpointMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 0.5;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) / 2.0;
+    }
+}
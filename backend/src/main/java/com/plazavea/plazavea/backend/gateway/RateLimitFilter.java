@@ -0,0 +1,85 @@
+package com.plazavea.plazavea.backend.gateway;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Runs after GatewayMetricsFilter so throttled requests still show up in the route metrics
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String THROTTLED_BODY =
+        "{\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"Demasiadas solicitudes, intente nuevamente más tarde\"}";
+
+    private final GatewayRoutes gatewayRoutes;
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final String clientHeader;
+
+    public RateLimitFilter(GatewayRoutes gatewayRoutes,
+                           RateLimiter rateLimiter,
+                           @Value("${gateway.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${gateway.rate-limit.client-header:}") String clientHeader) {
+        this.gatewayRoutes = gatewayRoutes;
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        GatewayRoutes.Route route = gatewayRoutes.match(request.getRequestURI());
+        if (route == null || !route.enabled() || route.rateLimit() <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(route.path(), route.rateLimit(), clientKey(request));
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        if (request.getHeader(HttpHeaders.ORIGIN) != null) {
+            // the controllers' @CrossOrigin never runs for a throttled request, the browser still needs to read it
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.RETRY_AFTER);
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(THROTTLED_BODY);
+    }
+
+    // Clients are told apart by the configured identity header when present, by address otherwise
+    private String clientKey(HttpServletRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String value = request.getHeader(clientHeader);
+            if (value != null && !value.isEmpty()) {
+                return value;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,85 @@
+package com.plazavea.plazavea.backend.gateway;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token buckets per route and client, kept as GCRA: one theoretical arrival time per bucket that a CAS
+// moves forward by period / rateLimit on every admitted request. The limit is read from the route on
+// each call, so a reloaded route applies to existing buckets straight away.
+@Component
+public class RateLimiter {
+
+    private final MeterRegistry meterRegistry;
+    private final long periodNanos;
+    private final long maxClients;
+    private final long origin = System.nanoTime();
+    private final ConcurrentHashMap<String, RouteBuckets> routes = new ConcurrentHashMap<>();
+
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${gateway.rate-limit.period:1m}") Duration period,
+                       @Value("${gateway.rate-limit.max-clients:100000}") long maxClients) {
+        this.meterRegistry = meterRegistry;
+        this.periodNanos = period.toNanos();
+        this.maxClients = maxClients;
+    }
+
+    // Returns 0 when the request is admitted, otherwise the nanoseconds until it would be
+    public long tryAcquire(String routePath, int rateLimit, String clientKey) {
+        RouteBuckets buckets = routes.get(routePath);
+        if (buckets == null) {
+            buckets = routes.computeIfAbsent(routePath, RouteBuckets::new);
+        }
+
+        long now = System.nanoTime() - origin;
+        long interval = Math.max(1, periodNanos / rateLimit);
+        AtomicLong arrival = buckets.arrivals.get(clientKey, key -> new AtomicLong());
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - periodNanos;
+            if (wait > 0) {
+                buckets.throttled.increment();
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                buckets.allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    private final class RouteBuckets {
+
+        // an idle bucket refills completely within one period, so expiring it loses nothing; cache
+        // maintenance runs on the calling thread, handing it to the common pool cost more than doing it
+        private final Cache<String, AtomicLong> arrivals;
+        private final Counter allowed;
+        private final Counter throttled;
+
+        RouteBuckets(String routePath) {
+            this.arrivals = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(periodNanos))
+                .executor(Runnable::run)
+                .build();
+            this.allowed = Counter.builder("gateway.ratelimit.requests")
+                .description("Requests checked against the route rate limits")
+                .tag("route", routePath)
+                .tag("outcome", "allowed")
+                .register(meterRegistry);
+            this.throttled = Counter.builder("gateway.ratelimit.requests")
+                .description("Requests checked against the route rate limits")
+                .tag("route", routePath)
+                .tag("outcome", "throttled")
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.plazavea.plazavea.backend.gateway;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for one route template and HTTP method, created once and then only incremented
+final class RouteStats {
+
+    static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final String path;
+    private final String method;
+    private final String service;
+    private final MeterRegistry meterRegistry;
+
+    final LongAdder requests = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder[] statusCounts = new LongAdder[STATUS_CLASSES.length];
+    final LatencyWindow window = new LatencyWindow();
+    private final AtomicReferenceArray<Timer> timers = new AtomicReferenceArray<>(STATUS_CLASSES.length);
+
+    RouteStats(String path, String method, String service, MeterRegistry meterRegistry) {
+        this.path = path;
+        this.method = method;
+        this.service = service;
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] = new LongAdder();
+        }
+    }
+
+    void record(int status, long durationNanos, long epoch) {
+        int statusClass = Math.min(Math.max(status / 100, 1), 5) - 1;
+        boolean error = status >= 500;
+
+        requests.increment();
+        statusCounts[statusClass].increment();
+        if (error) {
+            errors.increment();
+        }
+        window.record(epoch, durationNanos, error);
+        timer(statusClass).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getService() {
+        return service;
+    }
+
+    private Timer timer(int statusClass) {
+        Timer timer = timers.get(statusClass);
+        if (timer == null) {
+            timer = Timer.builder("gateway.http.requests")
+                .description("Requests handled by the gateway routes")
+                .tag("uri", path)
+                .tag("method", method)
+                .tag("status", STATUS_CLASSES[statusClass])
+                .tag("service", service)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+            timers.compareAndSet(statusClass, null, timer);
+        }
+        return timer;
+    }
+}
@@ -4,10 +4,16 @@ import java.util.List;
 
 public class GatewayMetrics {
     private double requestsPerSecond;
+    private double requestsPerSecondLastMinute;
     private int activeConnections;
     private double errorRate;
     private double avgLatency;
+    private double p50Latency;
+    private double p95Latency;
+    private double p99Latency;
     private List<ServiceStatus> services;
+    private List<RouteMetrics> routes;
+    private List<PoolMetrics> pools;
 
     public double getRequestsPerSecond() {
         return requestsPerSecond;
@@ -17,6 +23,14 @@ public class GatewayMetrics {
         this.requestsPerSecond = requestsPerSecond;
     }
 
+    public double getRequestsPerSecondLastMinute() {
+        return requestsPerSecondLastMinute;
+    }
+
+    public void setRequestsPerSecondLastMinute(double requestsPerSecondLastMinute) {
+        this.requestsPerSecondLastMinute = requestsPerSecondLastMinute;
+    }
+
     public int getActiveConnections() {
         return activeConnections;
     }
@@ -41,6 +55,30 @@ public class GatewayMetrics {
         this.avgLatency = avgLatency;
     }
 
+    public double getP50Latency() {
+        return p50Latency;
+    }
+
+    public void setP50Latency(double p50Latency) {
+        this.p50Latency = p50Latency;
+    }
+
+    public double getP95Latency() {
+        return p95Latency;
+    }
+
+    public void setP95Latency(double p95Latency) {
+        this.p95Latency = p95Latency;
+    }
+
+    public double getP99Latency() {
+        return p99Latency;
+    }
+
+    public void setP99Latency(double p99Latency) {
+        this.p99Latency = p99Latency;
+    }
+
     public List<ServiceStatus> getServices() {
         return services;
     }
@@ -48,4 +86,20 @@ public class GatewayMetrics {
     public void setServices(List<ServiceStatus> services) {
         this.services = services;
     }
+
+    public List<RouteMetrics> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<RouteMetrics> routes) {
+        this.routes = routes;
+    }
+
+    public List<PoolMetrics> getPools() {
+        return pools;
+    }
+
+    public void setPools(List<PoolMetrics> pools) {
+        this.pools = pools;
+    }
 }
@@ -0,0 +1,94 @@
+package com.plazavea.plazavea.backend.gateway.dto;
+
+public class PoolMetrics {
+    private String name;
+    private int active;
+    private int idle;
+    private int pending;
+    private int total;
+    private int max;
+    private double utilization;
+    private double waitMeanMillis;
+    private double waitMaxMillis;
+    private boolean saturated;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public void setMax(int max) {
+        this.max = max;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(double utilization) {
+        this.utilization = utilization;
+    }
+
+    public double getWaitMeanMillis() {
+        return waitMeanMillis;
+    }
+
+    public void setWaitMeanMillis(double waitMeanMillis) {
+        this.waitMeanMillis = waitMeanMillis;
+    }
+
+    public double getWaitMaxMillis() {
+        return waitMaxMillis;
+    }
+
+    public void setWaitMaxMillis(double waitMaxMillis) {
+        this.waitMaxMillis = waitMaxMillis;
+    }
+
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    public void setSaturated(boolean saturated) {
+        this.saturated = saturated;
+    }
+}
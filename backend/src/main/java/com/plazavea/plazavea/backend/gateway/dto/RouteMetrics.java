@@ -0,0 +1,96 @@
+package com.plazavea.plazavea.backend.gateway.dto;
+
+import java.util.Map;
+
+public class RouteMetrics {
+    private String path;
+    private String method;
+    private String service;
+    private long totalRequests;
+    private double requestsPerSecond;
+    private double errorRate;
+    private double p50Latency;
+    private double p95Latency;
+    private double p99Latency;
+    private Map<String, Long> statusCounts;
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+
+    public void setTotalRequests(long totalRequests) {
+        this.totalRequests = totalRequests;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public double getP50Latency() {
+        return p50Latency;
+    }
+
+    public void setP50Latency(double p50Latency) {
+        this.p50Latency = p50Latency;
+    }
+
+    public double getP95Latency() {
+        return p95Latency;
+    }
+
+    public void setP95Latency(double p95Latency) {
+        this.p95Latency = p95Latency;
+    }
+
+    public double getP99Latency() {
+        return p99Latency;
+    }
+
+    public void setP99Latency(double p99Latency) {
+        this.p99Latency = p99Latency;
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<String, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+}
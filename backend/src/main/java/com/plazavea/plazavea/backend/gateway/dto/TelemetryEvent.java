@@ -0,0 +1,31 @@
+package com.plazavea.plazavea.backend.gateway.dto;
+
+public class TelemetryEvent {
+    private String type; // request, error, duration
+    private String route;
+    private Long durationMs;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
@@ -0,0 +1,25 @@
+package com.plazavea.plazavea.backend.gateway.dto;
+
+public class TelemetryResult {
+    private int accepted;
+    private int dropped;
+    private int invalid;
+
+    public TelemetryResult(int accepted, int dropped, int invalid) {
+        this.accepted = accepted;
+        this.dropped = dropped;
+        this.invalid = invalid;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public int getDropped() {
+        return dropped;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+}
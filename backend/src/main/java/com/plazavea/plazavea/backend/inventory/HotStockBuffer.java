@@ -0,0 +1,280 @@
+package com.plazavea.plazavea.backend.inventory;
+
+import com.plazavea.plazavea.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Stock for flash-sale SKUs is leased from the database in blocks and handed out from striped counters,
+// so concurrent checkouts of the same product do not queue on its row lock
+@Component
+public class HotStockBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockBuffer.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final Map<Long, HotStock> stocks;
+    private final int leaseSize;
+    private final Counter leases;
+    private final Counter bufferMisses;
+    private final int refillThreshold;
+    private final ExecutorService refiller;
+
+    public HotStockBuffer(ProductRepository productRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${inventory.hot-skus:}") List<Long> hotProductIds,
+                          @Value("${inventory.hot-stripes:8}") int stripes,
+                          @Value("${inventory.hot-lease-size:50}") int leaseSize) {
+        this.productRepository = productRepository;
+        // leases commit on their own, a rolled back checkout cannot undo units already sitting in a stripe
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.leaseSize = Math.max(1, leaseSize);
+        // start the next lease while a quarter of the last one is still left, so checkouts rarely find it empty
+        this.refillThreshold = Math.max(1, this.leaseSize / 4);
+        this.refiller = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("hot-stock-refill").daemon(true).factory());
+
+        Map<Long, HotStock> configured = new HashMap<>();
+        for (Long productId : hotProductIds) {
+            configured.put(productId, new HotStock(Math.max(1, stripes)));
+        }
+        this.stocks = Map.copyOf(configured);
+
+        this.leases = Counter.builder("inventory.hot.leases")
+            .description("Stock blocks leased from the database for hot SKUs")
+            .register(meterRegistry);
+        this.bufferMisses = Counter.builder("inventory.hot.buffer.misses")
+            .description("Hot SKU reservations that found the buffer empty and reserved from the product row")
+            .register(meterRegistry);
+        Gauge.builder("inventory.hot.buffered", this, HotStockBuffer::bufferedUnits)
+            .description("Units leased from the database and not yet reserved")
+            .register(meterRegistry);
+    }
+
+    public boolean isHot(Long productId) {
+        return stocks.containsKey(productId);
+    }
+
+    // Never touches the database: the caller is inside a checkout transaction that already holds a connection,
+    // and a lease needing a second one could drain the pool during a flash sale. A miss returns false and the
+    // caller reserves from the product row on its own connection; a background refill tops the buffer up again.
+    public boolean tryTake(Long productId, int quantity) {
+        HotStock stock = stocks.get(productId);
+        if (stock.tryTakeFromStripe(quantity)) {
+            if (stock.total() < refillThreshold) {
+                requestRefill(productId, stock);
+            }
+            return true;
+        }
+
+        // another checkout or the flush is already pooling the stripes, treat it as a miss rather than wait
+        if (stock.refillLock.tryLock()) {
+            try {
+                // units may be spread over stripes none of which holds enough on its own
+                int pooled = stock.drain();
+                if (pooled >= quantity) {
+                    stock.add(pooled - quantity);
+                    return true;
+                }
+                stock.add(pooled);
+            } finally {
+                stock.refillLock.unlock();
+            }
+        }
+        bufferMisses.increment();
+        requestRefill(productId, stock);
+        return false;
+    }
+
+    public void giveBack(Long productId, int quantity) {
+        stocks.get(productId).add(quantity);
+    }
+
+    // Changes each time the stock is written off; units taken before that belong to the old count
+    public long generation(Long productId) {
+        return stocks.get(productId).generation;
+    }
+
+    // Returns units of a checkout that rolled back, unless the stock was recounted since they were taken
+    public void giveBack(Long productId, int quantity, long generation) {
+        HotStock stock = stocks.get(productId);
+        stock.refillLock.lock();
+        try {
+            if (stock.generation == generation) {
+                stock.add(quantity);
+            }
+        } finally {
+            stock.refillLock.unlock();
+        }
+    }
+
+    // Called inside the transaction that set the product row to a counted figure, after its UPDATE. What the
+    // buffer holds is part of that count, so it is dropped. A lease or flush that committed before the UPDATE
+    // sees the new generation and drops its units; one that waited on the row lock sees it and keeps them.
+    public void writeOff(Long productId) {
+        HotStock stock = stocks.get(productId);
+        stock.refillLock.lock();
+        try {
+            stock.generation++;
+            stock.drain();
+        } finally {
+            stock.refillLock.unlock();
+        }
+    }
+
+    // Hands unreserved units back to the database so the stored inventory stays close to what is really left
+    @Scheduled(fixedDelayString = "${inventory.hot-flush-interval:30s}")
+    public void flush() {
+        for (Map.Entry<Long, HotStock> entry : stocks.entrySet()) {
+            HotStock stock = entry.getValue();
+            int units;
+            long generation;
+            stock.refillLock.lock();
+            try {
+                units = stock.drain();
+                generation = stock.generation;
+            } finally {
+                stock.refillLock.unlock();
+            }
+            if (units == 0) {
+                continue;
+            }
+            // no lock held while the row is updated, a checkout meanwhile misses and reserves from the row itself
+            try {
+                leaseTransaction.executeWithoutResult(status -> {
+                    productRepository.incrementInventory(entry.getKey(), units);
+                    // checked while this transaction holds the row, a recount already counted these units
+                    if (stock.generation != generation) {
+                        status.setRollbackOnly();
+                    }
+                });
+            } catch (RuntimeException e) {
+                giveBack(entry.getKey(), units, generation);
+                log.warn("Could not return {} buffered units of product {}", units, entry.getKey(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        refiller.shutdown();
+        refiller.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void requestRefill(Long productId, HotStock stock) {
+        if (stock.refillPending.compareAndSet(false, true)) {
+            try {
+                refiller.execute(() -> refill(productId, stock));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                stock.refillPending.set(false);
+            }
+        }
+    }
+
+    // Runs on the refill thread outside any transaction, so a lease only ever needs this one connection. No lock is
+    // held during the lease: checkouts try refillLock while holding connections, and the lease may wait for one.
+    // When the row has less than a full lease left the last units stay there for checkouts to reserve directly.
+    private void refill(Long productId, HotStock stock) {
+        try {
+            long[] generation = new long[1];
+            Integer updated = leaseTransaction.execute(status -> {
+                int rows = productRepository.decrementInventory(productId, leaseSize);
+                // read while this transaction holds the row, so a recount either came before or waits for it
+                generation[0] = stock.generation;
+                return rows;
+            });
+            if (updated != null && updated > 0) {
+                giveBack(productId, leaseSize, generation[0]);
+                leases.increment();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not lease stock for product {}", productId, e);
+        } finally {
+            stock.refillPending.set(false);
+        }
+    }
+
+    private double bufferedUnits() {
+        long total = 0;
+        for (HotStock stock : stocks.values()) {
+            total += stock.total();
+        }
+        return total;
+    }
+
+    private static final class HotStock {
+
+        private final AtomicIntegerArray stripes;
+        private final ReentrantLock refillLock = new ReentrantLock();
+        private final AtomicBoolean refillPending = new AtomicBoolean();
+        // written under refillLock
+        private volatile long generation;
+
+        HotStock(int stripeCount) {
+            this.stripes = new AtomicIntegerArray(stripeCount);
+        }
+
+        boolean tryTakeFromStripe(int quantity) {
+            int count = stripes.length();
+            int start = ThreadLocalRandom.current().nextInt(count);
+            for (int i = 0; i < count; i++) {
+                int index = (start + i) % count;
+                int available = stripes.get(index);
+                while (available >= quantity) {
+                    if (stripes.compareAndSet(index, available, available - quantity)) {
+                        return true;
+                    }
+                    available = stripes.get(index);
+                }
+            }
+            return false;
+        }
+
+        void add(int quantity) {
+            if (quantity > 0) {
+                stripes.addAndGet(ThreadLocalRandom.current().nextInt(stripes.length()), quantity);
+            }
+        }
+
+        int drain() {
+            int total = 0;
+            for (int i = 0; i < stripes.length(); i++) {
+                total += stripes.getAndSet(i, 0);
+            }
+            return total;
+        }
+
+        long total() {
+            long total = 0;
+            for (int i = 0; i < stripes.length(); i++) {
+                total += stripes.get(i);
+            }
+            return total;
+        }
+    }
+}
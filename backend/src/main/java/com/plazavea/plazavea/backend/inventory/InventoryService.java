@@ -0,0 +1,174 @@
+package com.plazavea.plazavea.backend.inventory;
+
+import com.plazavea.plazavea.backend.catalog.StockChangedEvent;
+import com.plazavea.plazavea.backend.repository.OrderItemRepository;
+import com.plazavea.plazavea.backend.repository.OrderRepository;
+import com.plazavea.plazavea.backend.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class InventoryService {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_CANCELLED = "cancelled";
+    public static final String STATUS_PAID = "paid";
+    public static final String STATUS_COMPLETED = "completed";
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final HotStockBuffer hotStock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter rejected;
+    private final Counter released;
+
+    public InventoryService(ProductRepository productRepository,
+                            OrderRepository orderRepository,
+                            OrderItemRepository orderItemRepository,
+                            HotStockBuffer hotStock,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.hotStock = hotStock;
+        this.eventPublisher = eventPublisher;
+        this.rejected = Counter.builder("inventory.reservations.rejected")
+            .description("Checkouts rejected for insufficient stock")
+            .register(meterRegistry);
+        this.released = Counter.builder("inventory.reservations.released")
+            .description("Orders whose reserved stock was returned")
+            .register(meterRegistry);
+    }
+
+    // Each decrement only succeeds while enough stock is left, so concurrent checkouts can never oversell.
+    // Rows are touched in product id order to keep two baskets from deadlocking on each other.
+    @Transactional
+    public void reserve(Map<Long, Integer> quantities) {
+        List<Taken> takenFromBuffer = new ArrayList<>();
+        List<Long> decremented = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+                Long productId = entry.getKey();
+                int quantity = entry.getValue();
+                boolean reserved = false;
+                if (hotStock.isHot(productId)) {
+                    long generation = hotStock.generation(productId);
+                    reserved = hotStock.tryTake(productId, quantity);
+                    if (reserved) {
+                        takenFromBuffer.add(new Taken(productId, quantity, generation));
+                    }
+                }
+                // an empty buffer falls back to the row, on this transaction's connection
+                if (!reserved) {
+                    reserved = productRepository.decrementInventory(productId, quantity) == 1;
+                    if (reserved) {
+                        decremented.add(productId);
+                    }
+                }
+                if (!reserved) {
+                    rejected.increment();
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Stock insuficiente para el producto " + productId);
+                }
+            }
+        } catch (RuntimeException e) {
+            giveBack(takenFromBuffer);
+            throw e;
+        }
+
+        if (!decremented.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(decremented));
+        }
+
+        // buffered units live outside the transaction, so they are handed back by hand if the checkout rolls back
+        if (!takenFromBuffer.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        giveBack(takenFromBuffer);
+                    }
+                }
+            });
+        }
+    }
+
+    // Restocks or writes off units without overwriting decrements made by concurrent checkouts
+    @Transactional
+    public boolean adjust(Long productId, int delta) {
+        if (delta >= 0) {
+            return productRepository.incrementInventory(productId, delta) == 1;
+        }
+        return productRepository.decrementInventory(productId, -delta) == 1;
+    }
+
+    // Sets the stock to a counted figure in one UPDATE, so a checkout committing around it is either part of the
+    // count or applied on top of it. What a hot SKU's buffer holds is in the count too and is written off.
+    @Transactional
+    public boolean set(Long productId, int inventory) {
+        if (productRepository.setInventory(productId, inventory) == 0) {
+            return false;
+        }
+        if (hotStock.isHot(productId)) {
+            hotStock.writeOff(productId);
+        }
+        return true;
+    }
+
+    // Returns true when this call moved the order to cancelled; an order is only ever released once
+    @Transactional
+    public boolean cancel(Long orderId) {
+        if (orderRepository.cancelIfActive(orderId) == 0) {
+            return false;
+        }
+        release(orderId);
+        return true;
+    }
+
+    @Transactional
+    public boolean expire(Long orderId) {
+        if (orderRepository.updateStatusIfCurrent(orderId, STATUS_PENDING, STATUS_CANCELLED) == 0) {
+            return false;
+        }
+        release(orderId);
+        return true;
+    }
+
+    private void release(Long orderId) {
+        List<Long> incremented = new ArrayList<>();
+        for (StockQuantity line : orderItemRepository.findQuantitiesByOrderId(orderId)) {
+            int quantity = Math.toIntExact(line.quantity());
+            if (hotStock.isHot(line.productId())) {
+                hotStock.giveBack(line.productId(), quantity);
+            } else {
+                productRepository.incrementInventory(line.productId(), quantity);
+                incremented.add(line.productId());
+            }
+        }
+        if (!incremented.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(incremented));
+        }
+        released.increment();
+    }
+
+    private void giveBack(List<Taken> taken) {
+        for (Taken entry : taken) {
+            hotStock.giveBack(entry.productId(), entry.quantity(), entry.generation());
+        }
+    }
+
+    private record Taken(Long productId, int quantity, long generation) {}
+}
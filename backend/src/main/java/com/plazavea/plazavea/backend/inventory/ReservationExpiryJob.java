@@ -0,0 +1,53 @@
+package com.plazavea.plazavea.backend.inventory;
+
+import com.plazavea.plazavea.backend.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Cancels orders left pending past the reservation TTL so abandoned checkouts give their stock back
+@Component
+public class ReservationExpiryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiryJob.class);
+    private static final int BATCH_SIZE = 100;
+
+    private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+    private final Duration reservationTtl;
+
+    public ReservationExpiryJob(OrderRepository orderRepository,
+                                InventoryService inventoryService,
+                                @Value("${inventory.reservation-ttl:30m}") Duration reservationTtl) {
+        this.orderRepository = orderRepository;
+        this.inventoryService = inventoryService;
+        this.reservationTtl = reservationTtl;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.expiry-interval:60s}")
+    public void expireReservations() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(reservationTtl);
+        int expired = 0;
+        List<Long> orderIds;
+        do {
+            orderIds = orderRepository.findPendingIdsCreatedBefore(cutoff, PageRequest.of(0, BATCH_SIZE));
+            for (Long orderId : orderIds) {
+                // each order commits on its own, a payment landing meanwhile simply makes the update miss
+                if (inventoryService.expire(orderId)) {
+                    expired++;
+                }
+            }
+        } while (orderIds.size() == BATCH_SIZE);
+
+        if (expired > 0) {
+            log.info("Released stock of {} pending orders older than {}", expired, reservationTtl);
+        }
+    }
+}
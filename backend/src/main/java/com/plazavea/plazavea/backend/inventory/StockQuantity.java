@@ -0,0 +1,3 @@
+package com.plazavea.plazavea.backend.inventory;
+
+public record StockQuantity(Long productId, Long quantity) {}
@@ -21,7 +21,11 @@ public class Cart {
     
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
-    
+
+    // node id of the backend holding the cart in memory, claimed and released by HotCartStore only
+    @Column(name = "held_by", length = 64, insertable = false, updatable = false)
+    private String heldBy;
+
     public Cart() {
         this.updatedAt = LocalDateTime.now();
     }
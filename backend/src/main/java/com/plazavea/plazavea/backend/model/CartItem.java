@@ -1,5 +1,6 @@
 package com.plazavea.plazavea.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -15,6 +16,7 @@ public class CartItem {
     @NotNull(message = "El carrito es obligatorio")
     @ManyToOne
     @JoinColumn(name = "cart_id", nullable = false)
+    @JsonIgnoreProperties("items")
     private Cart cart;
     
     @NotNull(message = "El producto es obligatorio")
@@ -20,7 +20,7 @@ public class OrderItem {
     private Order order;
     
     @NotNull(message = "El producto es obligatorio")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
     
@@ -1,10 +1,13 @@
 package com.plazavea.plazavea.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_created_at_id", columnList = "created_at, id")
+})
 public class Payment {
     
     @Id
@@ -13,6 +16,7 @@ public class Payment {
     
     @ManyToOne
     @JoinColumn(name = "order_id")
+    @JsonIgnoreProperties({"payment", "receipt"})
     private Order order;
     
     @Column(nullable = false, length = 50)
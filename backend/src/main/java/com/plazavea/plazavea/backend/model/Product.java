@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_created_at_id", columnList = "created_at, id")
+})
 public class Product {
     
     @Id
@@ -37,7 +39,8 @@ public class Product {
     @Column(name = "discount_cents")
     private Long discountCents = 0L;
     
-    @Column(nullable = false)
+    // only the inventory queries change stock, so saving a product read earlier cannot undo a sale
+    @Column(nullable = false, updatable = false)
     private Integer inventory = 0;
     
     @Column(name = "image_url", columnDefinition = "TEXT")
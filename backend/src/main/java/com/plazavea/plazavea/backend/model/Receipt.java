@@ -1,11 +1,14 @@
 package com.plazavea.plazavea.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "receipts")
+@Table(name = "receipts", indexes = {
+    @Index(name = "idx_receipts_created_at_id", columnList = "created_at, id")
+})
 public class Receipt {
     
     @Id
@@ -14,6 +17,7 @@ public class Receipt {
     
     @ManyToOne
     @JoinColumn(name = "order_id")
+    @JsonIgnoreProperties({"payment", "receipt"})
     private Order order;
     
     @NotBlank(message = "La URL del PDF es obligatoria")
@@ -0,0 +1,3 @@
+package com.plazavea.plazavea.backend.order;
+
+public record OrderAttachmentStatus(Long orderId, String value) {}
@@ -0,0 +1,4 @@
+package com.plazavea.plazavea.backend.order;
+
+// Published once an order moves into a paid or completed status, after the status change has committed
+public record OrderCompletedEvent(Long orderId) {}
@@ -0,0 +1,15 @@
+package com.plazavea.plazavea.backend.order;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public record OrderItemSummary(@JsonIgnore Long orderId, Long id, Integer quantity, Long unitPriceCents,
+                               ProductSummary product) {
+
+    public OrderItemSummary(Long orderId, Long id, Integer quantity, Long unitPriceCents,
+                            Long productId, String productSku, String productName, String productImageUrl) {
+        this(orderId, id, quantity, unitPriceCents,
+             new ProductSummary(productId, productSku, productName, productImageUrl));
+    }
+
+    public record ProductSummary(Long id, String sku, String name, String imageUrl) {}
+}
@@ -0,0 +1,59 @@
+package com.plazavea.plazavea.backend.order;
+
+import com.plazavea.plazavea.backend.repository.OrderItemRepository;
+import com.plazavea.plazavea.backend.repository.PaymentRepository;
+import com.plazavea.plazavea.backend.repository.ReceiptRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Completes a page of order summaries with three IN queries, whatever the page size
+@Service
+public class OrderQueryService {
+
+    private final OrderItemRepository orderItemRepository;
+    private final PaymentRepository paymentRepository;
+    private final ReceiptRepository receiptRepository;
+
+    public OrderQueryService(OrderItemRepository orderItemRepository,
+                             PaymentRepository paymentRepository,
+                             ReceiptRepository receiptRepository) {
+        this.orderItemRepository = orderItemRepository;
+        this.paymentRepository = paymentRepository;
+        this.receiptRepository = receiptRepository;
+    }
+
+    public List<OrderSummary> withDetails(List<OrderSummary> orders) {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+
+        List<Long> orderIds = orders.stream().map(OrderSummary::id).toList();
+        Map<Long, List<OrderItemSummary>> items = orderItemRepository.findSummariesByOrderIds(orderIds).stream()
+            .collect(Collectors.groupingBy(OrderItemSummary::orderId));
+        Map<Long, String> paymentStatuses = toMap(paymentRepository.findStatusesByOrderIds(orderIds));
+        Map<Long, String> receiptUrls = toMap(receiptRepository.findPdfUrlsByOrderIds(orderIds));
+
+        return orders.stream()
+            .map(order -> order.withDetails(
+                paymentStatuses.get(order.id()),
+                receiptUrls.get(order.id()),
+                items.getOrDefault(order.id(), List.of())))
+            .toList();
+    }
+
+    public Page<OrderSummary> withDetails(Page<OrderSummary> page) {
+        return new PageImpl<>(withDetails(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    private static Map<Long, String> toMap(List<OrderAttachmentStatus> statuses) {
+        return statuses.stream()
+            .filter(status -> status.value() != null)
+            .collect(Collectors.toMap(OrderAttachmentStatus::orderId, OrderAttachmentStatus::value,
+                                      (first, second) -> first));
+    }
+}
@@ -0,0 +1,23 @@
+package com.plazavea.plazavea.backend.order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Read-only view used by the order list endpoints, built from projections instead of the Order entity graph
+public record OrderSummary(Long id, String status, Long totalCents, String currency, String paymentProvider,
+                           LocalDateTime createdAt, UserSummary user, String paymentStatus, String receiptPdfUrl,
+                           List<OrderItemSummary> items) {
+
+    public OrderSummary(Long id, String status, Long totalCents, String currency, String paymentProvider,
+                        LocalDateTime createdAt, Long userId, String userName, String userEmail) {
+        this(id, status, totalCents, currency, paymentProvider, createdAt,
+             userId != null ? new UserSummary(userId, userName, userEmail) : null, null, null, List.of());
+    }
+
+    public OrderSummary withDetails(String paymentStatus, String receiptPdfUrl, List<OrderItemSummary> items) {
+        return new OrderSummary(id, status, totalCents, currency, paymentProvider, createdAt, user,
+                                paymentStatus, receiptPdfUrl, items);
+    }
+
+    public record UserSummary(Long id, String name, String email) {}
+}
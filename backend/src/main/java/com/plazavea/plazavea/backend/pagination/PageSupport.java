@@ -0,0 +1,62 @@
+package com.plazavea.plazavea.backend.pagination;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class PageSupport {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PageSupport(@Value("${pagination.default-size:50}") int defaultSize,
+                       @Value("${pagination.max-size:200}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public int size(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    // Fetches one extra row so the response knows whether another page exists
+    public Pageable keysetLimit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    public Pageable offset(int page, int size, Sort sort) {
+        return PageRequest.of(Math.max(page, 0), size, sort);
+    }
+
+    public <T> ResponseEntity<List<T>> keysetResponse(List<T> rows, int size, Function<T, Cursor> cursorOf) {
+        if (rows.size() <= size) {
+            return ResponseEntity.ok(rows);
+        }
+        List<T> page = rows.subList(0, size);
+        return ResponseEntity.ok()
+            .header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(size - 1)).encode())
+            .body(page);
+    }
+
+    public <T> ResponseEntity<List<T>> offsetResponse(Page<T> page) {
+        return ResponseEntity.ok()
+            .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()))
+            .body(page.getContent());
+    }
+}
@@ -0,0 +1,5 @@
+package com.plazavea.plazavea.backend.receipt;
+
+import java.time.LocalDateTime;
+
+public record ReceiptArchiveEntry(Long id, Long orderId, LocalDateTime createdAt) {}
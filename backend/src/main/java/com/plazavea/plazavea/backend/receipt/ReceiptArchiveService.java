@@ -0,0 +1,153 @@
+package com.plazavea.plazavea.backend.receipt;
+
+import com.plazavea.plazavea.backend.datasource.DataSourceRouting;
+import com.plazavea.plazavea.backend.repository.ReceiptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+// Writes every stored receipt created in [from, to) to a ZIP as it reads them. Receipts are read in keyset pages,
+// each in its own short query on the reporting pool, so a slow download never holds a connection; the files are
+// copied into the archive one at a time. What stays in memory per receipt is the entry the ZIP's central
+// directory needs at the end, not its content.
+@Service
+public class ReceiptArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptArchiveService.class);
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final ReceiptRepository receiptRepository;
+    private final ReceiptFileStore fileStore;
+    private final MeterRegistry meterRegistry;
+    private final int pageSize;
+    private final int compressionLevel;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter entries;
+    private final Counter bytes;
+    private final Counter missing;
+
+    public ReceiptArchiveService(ReceiptRepository receiptRepository,
+                                 ReceiptFileStore fileStore,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${receipts.archive.page-size:500}") int pageSize,
+                                 @Value("${receipts.archive.compression-level:1}") int compressionLevel) {
+        this.receiptRepository = receiptRepository;
+        this.fileStore = fileStore;
+        this.meterRegistry = meterRegistry;
+        this.pageSize = Math.max(1, pageSize);
+        this.compressionLevel = compressionLevel;
+
+        this.entries = Counter.builder("receipts.archive.entries")
+            .description("Receipts written to archive downloads")
+            .register(meterRegistry);
+        this.bytes = Counter.builder("receipts.archive.bytes")
+            .description("Receipt file bytes written to archive downloads, before compression")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.missing = Counter.builder("receipts.archive.missing")
+            .description("Receipts left out of archive downloads because no rendered file exists")
+            .register(meterRegistry);
+        Gauge.builder("receipts.archive.active", active, AtomicInteger::get)
+            .description("Receipt archive downloads in progress")
+            .register(meterRegistry);
+    }
+
+    public void writeArchive(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        long written = 0;
+        long skipped = 0;
+        String outcome = "failed";
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.setLevel(compressionLevel);
+            Pageable page = PageRequest.of(0, pageSize);
+            List<ReceiptArchiveEntry> receipts = DataSourceRouting.reporting(
+                () -> receiptRepository.findArchiveFirstPage(from, to, page));
+            while (!receipts.isEmpty()) {
+                for (ReceiptArchiveEntry receipt : receipts) {
+                    if (add(zip, receipt)) {
+                        written++;
+                    } else {
+                        skipped++;
+                    }
+                }
+                // hand each page to the client rather than letting the container buffer decide
+                zip.flush();
+                log.debug("Receipt archive {} to {}: {} receipts written", from, to, written);
+                if (receipts.size() < pageSize) {
+                    break;
+                }
+                ReceiptArchiveEntry last = receipts.get(receipts.size() - 1);
+                receipts = DataSourceRouting.reporting(
+                    () -> receiptRepository.findArchivePageAfter(to, last.createdAt(), last.id(), page));
+            }
+            zip.finish();
+            outcome = "completed";
+        } finally {
+            active.decrementAndGet();
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("receipts.archive")
+                .description("Time to stream one receipt archive")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Receipt archive {} to {} {}: {} receipts, {} without a file, {} ms", from, to, outcome,
+                written, skipped, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    private boolean add(ZipOutputStream zip, ReceiptArchiveEntry receipt) throws IOException {
+        if (receipt.orderId() == null) {
+            missing.increment();
+            return false;
+        }
+        InputStream in;
+        try {
+            in = Files.newInputStream(fileStore.pathFor(receipt.orderId()));
+        } catch (NoSuchFileException e) {
+            // receipts whose pdfUrl was supplied by a client before rendering moved in-house
+            missing.increment();
+            return false;
+        }
+
+        try (in) {
+            ZipEntry entry = new ZipEntry(MONTH.format(receipt.createdAt()) + "/"
+                + ReceiptTemplate.number(receipt.orderId()) + ".pdf");
+            entry.setLastModifiedTime(FileTime.from(receipt.createdAt().atZone(ZoneId.systemDefault()).toInstant()));
+            try {
+                zip.putNextEntry(entry);
+            } catch (ZipException e) {
+                // a second receipt row for the same order points at the same file
+                return false;
+            }
+            bytes.increment(in.transferTo(zip));
+            zip.closeEntry();
+        }
+        entries.increment();
+        return true;
+    }
+}
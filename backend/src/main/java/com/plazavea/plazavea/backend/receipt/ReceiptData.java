@@ -0,0 +1,12 @@
+package com.plazavea.plazavea.backend.receipt;
+
+import com.plazavea.plazavea.backend.order.OrderItemSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Everything printed on a receipt, read before rendering so no connection is held while the PDF is built
+record ReceiptData(Long orderId, LocalDateTime createdAt, String currency, Long totalCents,
+                   String customerName, String customerEmail,
+                   String paymentProvider, String paymentReference, String paymentStatus,
+                   List<OrderItemSummary> items) {}
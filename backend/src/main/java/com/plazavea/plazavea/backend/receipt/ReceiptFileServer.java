@@ -0,0 +1,171 @@
+package com.plazavea.plazavea.backend.receipt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+
+// Serves stored receipt files with conditional requests and single byte ranges. On Tomcat the body goes out
+// through sendfile, the kernel copies the file to the socket and no byte passes through the heap; elsewhere a
+// FileChannel transfers it to the response stream. Multiple ranges are answered with the whole file, which
+// RFC 9110 allows, rather than building a multipart body.
+@Component
+public class ReceiptFileServer {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ReceiptFileStore fileStore;
+    private final String immutableCacheControl;
+    private final String revalidateCacheControl;
+    private final Counter sendfileTransfers;
+    private final Counter channelTransfers;
+
+    public ReceiptFileServer(ReceiptFileStore fileStore,
+                             MeterRegistry meterRegistry,
+                             @Value("${receipts.http.max-age:365d}") Duration maxAge) {
+        this.fileStore = fileStore;
+        // receipts carry the customer's name and email, so only the client may cache them
+        this.immutableCacheControl = CacheControl.maxAge(maxAge).cachePrivate().immutable().getHeaderValue();
+        this.revalidateCacheControl = CacheControl.noCache().cachePrivate().getHeaderValue();
+        this.sendfileTransfers = Counter.builder("receipts.served")
+            .description("Receipt files sent")
+            .tag("transfer", "sendfile")
+            .register(meterRegistry);
+        this.channelTransfers = Counter.builder("receipts.served")
+            .description("Receipt files sent")
+            .tag("transfer", "channel")
+            .register(meterRegistry);
+    }
+
+    public void serve(long orderId, String requestedVersion, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path path = fileStore.pathFor(orderId);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "La boleta aún no está disponible");
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String version = ReceiptFileStore.version(attributes);
+        String etag = "\"" + version + "\"";
+
+        // a URL naming the current version always returns these bytes, any other URL has to revalidate
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+            version.equals(requestedVersion) ? immutableCacheControl : revalidateCacheControl);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.inline().filename("boleta-" + orderId + ".pdf").build().toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long start = 0;
+        long end = length;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length) + 1;
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (start >= length || start >= end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        transfer(path, start, end, request, response);
+    }
+
+    private void transfer(Path path, long start, long end, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // sendfile bypasses response wrappers; Spring's own wrappers pass writes through, a caching one would miss the body
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))
+                && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            sendfileTransfers.increment();
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    // replaced by a shorter render after the headers went out
+                    throw new EOFException("Receipt file " + path + " ended at " + position);
+                }
+                position += sent;
+            }
+        }
+        channelTransfers.increment();
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // only a strong comparison counts, a weak tag never matches
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
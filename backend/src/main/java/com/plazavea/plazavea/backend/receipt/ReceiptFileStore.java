@@ -0,0 +1,78 @@
+package com.plazavea.plazavea.backend.receipt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+// Rendered receipts on local disk, one file per order, spread over directories of a thousand orders each
+@Component
+public class ReceiptFileStore {
+
+    private static final int ORDERS_PER_DIRECTORY = 1000;
+
+    private final Path root;
+
+    public ReceiptFileStore(@Value("${receipts.storage.dir:data/receipts}") String directory) {
+        this.root = Paths.get(directory).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de boletas " + root, e);
+        }
+    }
+
+    public Path pathFor(long orderId) {
+        return root.resolve(Long.toString(orderId / ORDERS_PER_DIRECTORY)).resolve("receipt-" + orderId + ".pdf");
+    }
+
+    public boolean exists(long orderId) {
+        return Files.isRegularFile(pathFor(orderId));
+    }
+
+    public String version(long orderId) throws IOException {
+        return version(Files.readAttributes(pathFor(orderId), BasicFileAttributes.class));
+    }
+
+    // Every render moves a new file into place, so modification time and size identify one exact content
+    static String version(BasicFileAttributes attributes) {
+        return Long.toHexString(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)) + "-"
+            + Long.toHexString(attributes.size());
+    }
+
+    // The content goes to a temporary file that is forced to disk and then moved over the target, so a reader
+    // sees either the previous receipt or the complete new one, never a partial PDF
+    public Path write(long orderId, ContentWriter writer) throws IOException {
+        Path target = pathFor(orderId);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "receipt-" + orderId + "-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+                writer.write(out);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return target;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
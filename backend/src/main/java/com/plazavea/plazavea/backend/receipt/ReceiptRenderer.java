@@ -0,0 +1,245 @@
+package com.plazavea.plazavea.backend.receipt;
+
+import com.plazavea.plazavea.backend.inventory.InventoryService;
+import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.model.Payment;
+import com.plazavea.plazavea.backend.model.Receipt;
+import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.order.OrderCompletedEvent;
+import com.plazavea.plazavea.backend.repository.OrderItemRepository;
+import com.plazavea.plazavea.backend.repository.OrderRepository;
+import com.plazavea.plazavea.backend.repository.ReceiptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Renders receipt PDFs off the request path. Completed orders are queued on a bounded pool; a worker reads the
+// order in a short transaction, renders and writes the file with no connection held, then records the pdfUrl.
+// Jobs stay in memory until they are ready, afterwards the receipts table answers status queries. Failed jobs
+// are kept so clients can see the error, and are replaced when the order is queued again.
+@Service
+public class ReceiptRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptRenderer.class);
+
+    public static final String QUEUED = "queued";
+    public static final String RENDERING = "rendering";
+    public static final String READY = "ready";
+    public static final String FAILED = "failed";
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ReceiptRepository receiptRepository;
+    private final ReceiptTemplate template;
+    private final ReceiptFileStore fileStore;
+    private final TransactionTemplate transaction;
+    private final ThreadPoolExecutor workers;
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final String publicBaseUrl;
+    private final Duration recoveryWindow;
+    private final int queueCapacity;
+    private final Timer renderTimer;
+    private final Counter failures;
+    private final Counter rejected;
+
+    public ReceiptRenderer(OrderRepository orderRepository,
+                           OrderItemRepository orderItemRepository,
+                           ReceiptRepository receiptRepository,
+                           ReceiptTemplate template,
+                           ReceiptFileStore fileStore,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${receipts.workers:2}") int workerCount,
+                           @Value("${receipts.queue-capacity:1000}") int queueCapacity,
+                           @Value("${receipts.public-base-url:}") String publicBaseUrl,
+                           @Value("${receipts.recovery-window:24h}") Duration recoveryWindow) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.receiptRepository = receiptRepository;
+        this.template = template;
+        this.fileStore = fileStore;
+        // not read-only: a replica may not have the order yet when it is rendered right after payment
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.workers = new ThreadPoolExecutor(Math.max(1, workerCount), Math.max(1, workerCount),
+            0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(this.queueCapacity),
+            Thread.ofPlatform().name("receipt-render-", 0).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.publicBaseUrl = publicBaseUrl;
+        this.recoveryWindow = recoveryWindow;
+
+        this.renderTimer = Timer.builder("receipts.render")
+            .description("Time to load, render and store one receipt")
+            .register(meterRegistry);
+        this.failures = Counter.builder("receipts.render.failures")
+            .description("Receipts that could not be rendered")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("receipts.render.rejected")
+            .description("Receipts not queued because the render queue was full")
+            .register(meterRegistry);
+        Gauge.builder("receipts.render.queue", workers, pool -> pool.getQueue().size())
+            .description("Receipts waiting for a render worker")
+            .register(meterRegistry);
+        Gauge.builder("receipts.render.active", workers, ThreadPoolExecutor::getActiveCount)
+            .description("Receipts being rendered")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderCompleted(OrderCompletedEvent event) {
+        enqueue(event.orderId());
+    }
+
+    // Orders completed while the application was down, or whose jobs were lost with it, still get their receipt
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        List<Long> orderIds = orderRepository.findIdsWithoutReceipt(
+            List.of(InventoryService.STATUS_PAID, InventoryService.STATUS_COMPLETED),
+            LocalDateTime.now().minus(recoveryWindow), PageRequest.of(0, queueCapacity));
+        if (!orderIds.isEmpty()) {
+            log.info("Queueing {} completed orders without a receipt", orderIds.size());
+            orderIds.forEach(this::enqueue);
+        }
+    }
+
+    // Queues a render unless one is already pending; a job that failed is replaced by a fresh attempt
+    public ReceiptStatus enqueue(long orderId) {
+        Job job = new Job(orderId);
+        Job existing = jobs.putIfAbsent(orderId, job);
+        if (existing != null) {
+            if (!FAILED.equals(existing.status) || !jobs.replace(orderId, existing, job)) {
+                return existing.toStatus();
+            }
+        }
+
+        try {
+            workers.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Receipt queue full, order {} not queued", orderId);
+            job.fail("La cola de boletas está llena, vuelva a intentarlo");
+        }
+        return job.toStatus();
+    }
+
+    public Optional<ReceiptStatus> status(long orderId) {
+        Job job = jobs.get(orderId);
+        if (job != null) {
+            return Optional.of(job.toStatus());
+        }
+        return receiptRepository.findPdfUrlsByOrderIds(List.of(orderId)).stream()
+            .findFirst()
+            .map(receipt -> new ReceiptStatus(orderId, READY, receipt.value(), null));
+    }
+
+    // Completes once the current job finishes, at once when the receipt already exists; empty when neither applies
+    public Optional<CompletableFuture<ReceiptStatus>> whenDone(long orderId) {
+        Job job = jobs.get(orderId);
+        if (job != null) {
+            return Optional.of(job.done);
+        }
+        return status(orderId).map(CompletableFuture::completedFuture);
+    }
+
+    private void render(Job job) {
+        job.status = RENDERING;
+        long start = System.nanoTime();
+        try {
+            ReceiptData data = transaction.execute(status -> load(job.orderId));
+            if (data == null) {
+                throw new IllegalStateException("Pedido no encontrado");
+            }
+            fileStore.write(job.orderId, out -> template.render(data, out));
+
+            // versioned so the URL can be cached as immutable, a new render gets a new URL
+            String pdfUrl = publicBaseUrl + "/api/receipts/order/" + job.orderId + "/pdf?v="
+                + fileStore.version(job.orderId);
+            transaction.executeWithoutResult(status -> attach(job.orderId, pdfUrl));
+            renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            jobs.remove(job.orderId, job);
+            job.status = READY;
+            job.done.complete(job.toStatus(pdfUrl));
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Failed to render receipt for order {}", job.orderId, e);
+            job.fail(e.getMessage() != null ? e.getMessage() : "No se pudo generar la boleta");
+        }
+    }
+
+    private ReceiptData load(long orderId) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null) {
+            return null;
+        }
+        User user = order.getUser();
+        Payment payment = order.getPayment();
+        return new ReceiptData(order.getId(), order.getCreatedAt(), order.getCurrency(), order.getTotalCents(),
+            user != null ? user.getName() : null, user != null ? user.getEmail() : null,
+            payment != null ? payment.getProvider() : order.getPaymentProvider(),
+            payment != null ? payment.getProviderPaymentId() : null,
+            payment != null ? payment.getStatus() : null,
+            orderItemRepository.findSummariesByOrderIds(List.of(orderId)));
+    }
+
+    private void attach(long orderId, String pdfUrl) {
+        Order order = orderRepository.getReferenceById(orderId);
+        Receipt receipt = receiptRepository.findByOrder(order).orElseGet(() -> new Receipt(order, pdfUrl));
+        receipt.setPdfUrl(pdfUrl);
+        receiptRepository.save(receipt);
+    }
+
+    private static final class Job {
+        final long orderId;
+        final CompletableFuture<ReceiptStatus> done = new CompletableFuture<>();
+        volatile String status = QUEUED;
+        volatile String error;
+
+        Job(long orderId) {
+            this.orderId = orderId;
+        }
+
+        void fail(String message) {
+            error = message;
+            status = FAILED;
+            done.complete(toStatus());
+        }
+
+        ReceiptStatus toStatus() {
+            return toStatus(null);
+        }
+
+        ReceiptStatus toStatus(String pdfUrl) {
+            return new ReceiptStatus(orderId, status, pdfUrl, error);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.plazavea.plazavea.backend.receipt;
+
+// status is queued, rendering, ready or failed; pdfUrl is set once ready and error once failed
+public record ReceiptStatus(Long orderId, String status, String pdfUrl, String error) {}
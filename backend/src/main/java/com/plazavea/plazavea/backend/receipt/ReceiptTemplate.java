@@ -0,0 +1,242 @@
+package com.plazavea.plazavea.backend.receipt;
+
+import com.plazavea.plazavea.backend.order.OrderItemSummary;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Lays out an A4 boleta. The standard 14 fonts need no embedding, so each worker thread builds its fonts once and
+// reuses them for every document it renders; PDFBox fonts keep unsynchronized caches and are not shared.
+@Component
+public class ReceiptTemplate {
+
+    private static final PDRectangle PAGE = PDRectangle.A4;
+    private static final float MARGIN = 50;
+    private static final float RIGHT = PAGE.getWidth() - MARGIN;
+    private static final float ROW_HEIGHT = 16;
+    // room left on the last page for the totals, payment and footer
+    private static final float CLOSING_HEIGHT = 110;
+
+    private static final float QUANTITY_X = MARGIN;
+    private static final float DESCRIPTION_X = MARGIN + 45;
+    private static final float DESCRIPTION_WIDTH = 280;
+    private static final float UNIT_PRICE_RIGHT = RIGHT - 95;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final ThreadLocal<Resources> resources = ThreadLocal.withInitial(Resources::new);
+
+    public void render(ReceiptData data, OutputStream out) throws IOException {
+        Resources res = resources.get();
+        try (PDDocument document = new PDDocument(); Layout layout = new Layout(document, res)) {
+            String number = number(data.orderId());
+            layout.newPage();
+            header(layout, data, number);
+            tableHeader(layout);
+
+            for (OrderItemSummary item : data.items()) {
+                if (layout.y - ROW_HEIGHT < MARGIN) {
+                    layout.newPage();
+                    layout.text(res.bold, 10, MARGIN, "PLAZA VEA - " + number + " (continuación)");
+                    layout.y -= ROW_HEIGHT * 1.5f;
+                    tableHeader(layout);
+                }
+                row(layout, data.currency(), item);
+            }
+
+            if (layout.y < MARGIN + CLOSING_HEIGHT) {
+                layout.newPage();
+            }
+            closing(layout, data);
+            layout.close();
+            document.save(out);
+        }
+    }
+
+    private void header(Layout layout, ReceiptData data, String number) throws IOException {
+        Resources res = layout.res;
+        layout.text(res.bold, 18, MARGIN, "PLAZA VEA");
+        layout.textRight(res.bold, 11, RIGHT, "Boleta de venta electrónica");
+        layout.y -= 14;
+        layout.textRight(res.regular, 11, RIGHT, "N° " + number);
+        layout.y -= 26;
+
+        if (data.createdAt() != null) {
+            layout.text(res.regular, 10, MARGIN, "Fecha: " + DATE_FORMAT.format(data.createdAt()));
+            layout.y -= 14;
+        }
+        if (data.customerName() != null) {
+            layout.text(res.regular, 10, MARGIN, "Cliente: " + data.customerName());
+            layout.y -= 14;
+        }
+        if (data.customerEmail() != null) {
+            layout.text(res.regular, 10, MARGIN, "Correo: " + data.customerEmail());
+            layout.y -= 14;
+        }
+        layout.y -= 6;
+    }
+
+    private void tableHeader(Layout layout) throws IOException {
+        Resources res = layout.res;
+        layout.rule();
+        layout.y -= 13;
+        layout.text(res.bold, 9, QUANTITY_X, "Cant.");
+        layout.text(res.bold, 9, DESCRIPTION_X, "Descripción");
+        layout.textRight(res.bold, 9, UNIT_PRICE_RIGHT, "P. unit.");
+        layout.textRight(res.bold, 9, RIGHT, "Importe");
+        layout.y -= 6;
+        layout.rule();
+        layout.y -= ROW_HEIGHT - 4;
+    }
+
+    private void row(Layout layout, String currency, OrderItemSummary item) throws IOException {
+        Resources res = layout.res;
+        int quantity = item.quantity() != null ? item.quantity() : 0;
+        long unitPrice = item.unitPriceCents() != null ? item.unitPriceCents() : 0;
+        String name = item.product().name() != null ? item.product().name() : "Producto " + item.product().id();
+
+        layout.text(res.regular, 9, QUANTITY_X, Integer.toString(quantity));
+        layout.text(res.regular, 9, DESCRIPTION_X, fit(res.regular, 9, res.sanitize(name), DESCRIPTION_WIDTH));
+        layout.textRight(res.regular, 9, UNIT_PRICE_RIGHT, res.money(currency, unitPrice));
+        layout.textRight(res.regular, 9, RIGHT, res.money(currency, unitPrice * quantity));
+        layout.y -= ROW_HEIGHT;
+    }
+
+    private void closing(Layout layout, ReceiptData data) throws IOException {
+        Resources res = layout.res;
+        layout.rule();
+        layout.y -= 18;
+        layout.textRight(res.bold, 12, UNIT_PRICE_RIGHT, "Total");
+        layout.textRight(res.bold, 12, RIGHT, res.money(data.currency(), data.totalCents() != null ? data.totalCents() : 0));
+        layout.y -= 24;
+
+        if (data.paymentProvider() != null) {
+            StringBuilder payment = new StringBuilder("Pago: ").append(data.paymentProvider());
+            if (data.paymentReference() != null) {
+                payment.append(" - ref. ").append(data.paymentReference());
+            }
+            if (data.paymentStatus() != null) {
+                payment.append(" (").append(data.paymentStatus()).append(')');
+            }
+            layout.text(res.regular, 9, MARGIN, payment.toString());
+            layout.y -= 14;
+        }
+        layout.y -= 16;
+        layout.text(res.bold, 10, MARGIN, "Gracias por su compra");
+    }
+
+    static String number(Long orderId) {
+        return String.format("B001-%08d", orderId);
+    }
+
+    private static String fit(PDFont font, float size, String text, float width) throws IOException {
+        if (width(font, size, text) <= width) {
+            return text;
+        }
+        int end = text.length();
+        while (end > 0 && width(font, size, text.substring(0, end) + "…") > width) {
+            end--;
+        }
+        return text.substring(0, end).stripTrailing() + "…";
+    }
+
+    private static float width(PDFont font, float size, String text) throws IOException {
+        return font.getStringWidth(text) / 1000 * size;
+    }
+
+    private static final class Resources {
+        final PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        final PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        final DecimalFormat amount = new DecimalFormat("#,##0.00", DecimalFormatSymbols.getInstance(Locale.US));
+
+        String money(String currency, long cents) {
+            String prefix = currency == null || "PEN".equals(currency) ? "S/ " : currency + " ";
+            return prefix + amount.format(cents / 100.0);
+        }
+
+        // Names come from the catalog and may hold characters the WinAnsi encoding of the standard fonts lacks
+        String sanitize(String text) {
+            StringBuilder clean = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isISOControl(c)) {
+                    clean.append(' ');
+                } else if (c < 0x80 || encodable(c)) {
+                    clean.append(c);
+                } else {
+                    clean.append('?');
+                }
+            }
+            return clean.toString();
+        }
+
+        private boolean encodable(char c) {
+            try {
+                regular.encode(String.valueOf(c));
+                return true;
+            } catch (IllegalArgumentException | IOException e) {
+                return false;
+            }
+        }
+    }
+
+    private static final class Layout implements AutoCloseable {
+        final PDDocument document;
+        final Resources res;
+        PDPageContentStream content;
+        float y;
+
+        Layout(PDDocument document, Resources res) {
+            this.document = document;
+            this.res = res;
+        }
+
+        void newPage() throws IOException {
+            close();
+            PDPage page = new PDPage(PAGE);
+            document.addPage(page);
+            content = new PDPageContentStream(document, page);
+            y = PAGE.getHeight() - MARGIN;
+        }
+
+        void text(PDFont font, float size, float x, String text) throws IOException {
+            content.beginText();
+            content.setFont(font, size);
+            content.newLineAtOffset(x, y);
+            content.showText(res.sanitize(text));
+            content.endText();
+        }
+
+        void textRight(PDFont font, float size, float right, String text) throws IOException {
+            String clean = res.sanitize(text);
+            text(font, size, right - width(font, size, clean), clean);
+        }
+
+        void rule() throws IOException {
+            content.setLineWidth(0.5f);
+            content.moveTo(MARGIN, y);
+            content.lineTo(RIGHT, y);
+            content.stroke();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (content != null) {
+                content.close();
+                content = null;
+            }
+        }
+    }
+}
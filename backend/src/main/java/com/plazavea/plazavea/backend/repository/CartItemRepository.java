@@ -5,11 +5,13 @@ import com.plazavea.plazavea.backend.model.Cart;
 import com.plazavea.plazavea.backend.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Optional<CartItem> findByCartAndProduct(Cart cart, Product product);
+    @Transactional
     void deleteByCart(Cart cart);
 }
@@ -2,13 +2,29 @@ package com.plazavea.plazavea.backend.repository;
 
 import com.plazavea.plazavea.backend.model.Cart;
 import com.plazavea.plazavea.backend.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUser(User user);
     Optional<Cart> findByUserId(Long userId);
+    
+    @Query("SELECT c FROM Cart c ORDER BY c.id DESC")
+    List<Cart> findFirstPage(Pageable pageable);
+    
+    @Query("SELECT c FROM Cart c WHERE c.id < :id ORDER BY c.id DESC")
+    List<Cart> findPageAfter(@Param("id") Long id, Pageable pageable);
+
+    // loads the items of a page already cut by one of the queries above, a fetch join cannot be limited in SQL
+    @EntityGraph(attributePaths = {"items"}, type = EntityGraph.EntityGraphType.LOAD)
+    List<Cart> findByIdInOrderByIdDesc(Collection<Long> ids);
 }
@@ -0,0 +1,25 @@
+package com.plazavea.plazavea.backend.repository;
+
+import com.plazavea.plazavea.backend.inventory.StockQuantity;
+import com.plazavea.plazavea.backend.model.OrderItem;
+import com.plazavea.plazavea.backend.order.OrderItemSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    
+    @Query("SELECT new com.plazavea.plazavea.backend.order.OrderItemSummary(" +
+           "i.order.id, i.id, i.quantity, i.unitPriceCents, p.id, p.sku, p.name, p.imageUrl) " +
+           "FROM OrderItem i JOIN i.product p WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemSummary> findSummariesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Query("SELECT new com.plazavea.plazavea.backend.inventory.StockQuantity(i.product.id, SUM(i.quantity)) " +
+           "FROM OrderItem i WHERE i.order.id = :orderId GROUP BY i.product.id")
+    List<StockQuantity> findQuantitiesByOrderId(@Param("orderId") Long orderId);
+}
@@ -2,16 +2,28 @@ package com.plazavea.plazavea.backend.repository;
 
 import com.plazavea.plazavea.backend.model.Order;
 import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.order.OrderSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
+    String SUMMARY = "new com.plazavea.plazavea.backend.order.OrderSummary(" +
+        "o.id, o.status, o.totalCents, o.currency, o.paymentProvider, o.createdAt, u.id, u.name, u.email)";
+    
     List<Order> findByUser(User user);
     
     List<Order> findByUserId(Long userId);
@@ -29,4 +41,58 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT o FROM Order o WHERE o.paymentProvider = :provider")
     List<Order> findByPaymentProvider(@Param("provider") String provider);
+    
+    @Override
+    @EntityGraph(attributePaths = {"user", "payment", "receipt"})
+    Optional<Order> findById(Long id);
+    
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    Optional<Order> findWithItemsById(Long id);
+    
+    @Query(value = "SELECT " + SUMMARY + " FROM Order o LEFT JOIN o.user u",
+           countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderSummary> findSummaryPage(Pageable pageable);
+    
+    @Query("SELECT " + SUMMARY + " FROM Order o LEFT JOIN o.user u ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findFirstPage(Pageable pageable);
+    
+    @Query("SELECT " + SUMMARY + " FROM Order o LEFT JOIN o.user u WHERE o.createdAt < :createdAt OR " +
+           "(o.createdAt = :createdAt AND o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT " + SUMMARY + " FROM Order o LEFT JOIN o.user u WHERE u.id = :userId " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT " + SUMMARY + " FROM Order o LEFT JOIN o.user u WHERE u.id = :userId AND (o.createdAt < :createdAt OR " +
+           "(o.createdAt = :createdAt AND o.id < :id)) ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findPageByUserIdAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT " + SUMMARY + " FROM Order o LEFT JOIN o.user u WHERE o.status = :status " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findFirstPageByStatus(@Param("status") String status, Pageable pageable);
+    
+    @Query("SELECT " + SUMMARY + " FROM Order o LEFT JOIN o.user u WHERE o.status = :status AND (o.createdAt < :createdAt OR " +
+           "(o.createdAt = :createdAt AND o.id < :id)) ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findPageByStatusAfter(@Param("status") String status, @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'pending' AND o.createdAt < :cutoff ORDER BY o.createdAt")
+    List<Long> findPendingIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.createdAt >= :since AND " +
+           "NOT EXISTS (SELECT r.id FROM Receipt r WHERE r.order = o) ORDER BY o.id")
+    List<Long> findIdsWithoutReceipt(@Param("statuses") Collection<String> statuses,
+                                     @Param("since") LocalDateTime since, Pageable pageable);
+    
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id = :id AND o.status = :expected")
+    int updateStatusIfCurrent(@Param("id") Long id, @Param("expected") String expected, @Param("status") String status);
+    
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'cancelled' WHERE o.id = :id AND o.status <> 'cancelled'")
+    int cancelIfActive(@Param("id") Long id);
 }
@@ -2,9 +2,15 @@ package com.plazavea.plazavea.backend.repository;
 
 import com.plazavea.plazavea.backend.model.Payment;
 import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.order.OrderAttachmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +20,15 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByProvider(String provider);
     List<Payment> findByStatus(String status);
     Optional<Payment> findByProviderPaymentId(String providerPaymentId);
+    
+    @Query("SELECT p FROM Payment p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findFirstPage(Pageable pageable);
+    
+    @Query("SELECT p FROM Payment p WHERE p.createdAt < :createdAt OR " +
+           "(p.createdAt = :createdAt AND p.id < :id) ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT new com.plazavea.plazavea.backend.order.OrderAttachmentStatus(p.order.id, p.status) " +
+           "FROM Payment p WHERE p.order.id IN :orderIds")
+    List<OrderAttachmentStatus> findStatusesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
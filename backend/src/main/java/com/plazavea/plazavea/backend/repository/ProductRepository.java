@@ -1,12 +1,19 @@
 package com.plazavea.plazavea.backend.repository;
 
+import com.plazavea.plazavea.backend.catalog.FacetRow;
+import com.plazavea.plazavea.backend.checkout.ProductPrice;
 import com.plazavea.plazavea.backend.model.Product;
 import com.plazavea.plazavea.backend.model.Category;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +24,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByCategoryId(Long categoryId);
     
+    List<Product> findByCategoryIdIn(Collection<Long> categoryIds);
+    
     Optional<Product> findBySku(String sku);
     
     boolean existsBySku(String sku);
@@ -40,5 +49,55 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategoryAndSearch(@Param("categoryId") Long categoryId, 
                                          @Param("search") String search);
     
+    @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds AND (" +
+           "LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')))")
+    List<Product> findByCategoryIdInAndSearch(@Param("categoryIds") Collection<Long> categoryIds,
+                                              @Param("search") String search);
+    
     boolean existsByName(String name);
+    
+    @Query("SELECT p FROM Product p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findFirstPage(Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.createdAt < :createdAt OR " +
+           "(p.createdAt = :createdAt AND p.id < :id) ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findFirstPageByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds AND (p.createdAt < :createdAt OR " +
+           "(p.createdAt = :createdAt AND p.id < :id)) ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findPageAfterByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds,
+                                              @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                              Pageable pageable);
+    
+    @Query("SELECT new com.plazavea.plazavea.backend.checkout.ProductPrice(p.id, p.priceCents, p.discountCents) " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductPrice> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.plazavea.plazavea.backend.catalog.FacetRow(p.id, c.id, p.priceCents, p.discountCents, " +
+           "p.inventory, p.createdAt) FROM Product p LEFT JOIN p.category c")
+    List<FacetRow> findFacetRows();
+    
+    @Query("SELECT new com.plazavea.plazavea.backend.catalog.FacetRow(p.id, c.id, p.priceCents, p.discountCents, " +
+           "p.inventory, p.createdAt) FROM Product p LEFT JOIN p.category c WHERE p.id IN :ids")
+    List<FacetRow> findFacetRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.inventory = p.inventory - :quantity WHERE p.id = :id AND p.inventory >= :quantity")
+    int decrementInventory(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.inventory = p.inventory + :quantity WHERE p.id = :id")
+    int incrementInventory(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.inventory = :inventory WHERE p.id = :id AND :inventory >= 0")
+    int setInventory(@Param("id") Long id, @Param("inventory") int inventory);
 }
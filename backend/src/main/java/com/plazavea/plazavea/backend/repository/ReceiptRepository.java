@@ -2,12 +2,44 @@ package com.plazavea.plazavea.backend.repository;
 
 import com.plazavea.plazavea.backend.model.Receipt;
 import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.order.OrderAttachmentStatus;
+import com.plazavea.plazavea.backend.receipt.ReceiptArchiveEntry;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
+    
+    String ARCHIVE_ENTRY = "new com.plazavea.plazavea.backend.receipt.ReceiptArchiveEntry(r.id, r.order.id, r.createdAt)";
+    
     Optional<Receipt> findByOrder(Order order);
+    
+    @Query("SELECT r FROM Receipt r ORDER BY r.createdAt DESC, r.id DESC")
+    List<Receipt> findFirstPage(Pageable pageable);
+    
+    @Query("SELECT r FROM Receipt r WHERE r.createdAt < :createdAt OR " +
+           "(r.createdAt = :createdAt AND r.id < :id) ORDER BY r.createdAt DESC, r.id DESC")
+    List<Receipt> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT " + ARCHIVE_ENTRY + " FROM Receipt r WHERE r.createdAt >= :from AND r.createdAt < :to " +
+           "ORDER BY r.createdAt, r.id")
+    List<ReceiptArchiveEntry> findArchiveFirstPage(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                   Pageable pageable);
+    
+    @Query("SELECT " + ARCHIVE_ENTRY + " FROM Receipt r WHERE r.createdAt < :to AND (r.createdAt > :createdAt OR " +
+           "(r.createdAt = :createdAt AND r.id > :id)) ORDER BY r.createdAt, r.id")
+    List<ReceiptArchiveEntry> findArchivePageAfter(@Param("to") LocalDateTime to, @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT new com.plazavea.plazavea.backend.order.OrderAttachmentStatus(r.order.id, r.pdfUrl) " +
+           "FROM Receipt r WHERE r.order.id IN :orderIds")
+    List<OrderAttachmentStatus> findPdfUrlsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -0,0 +1,40 @@
+package com.plazavea.plazavea.backend.user;
+
+import com.plazavea.plazavea.backend.cache.TieredCache;
+import com.plazavea.plazavea.backend.cache.TieredCacheManager;
+import com.plazavea.plazavea.backend.model.User;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Component
+public class UserCache {
+
+    private final TieredCache<User> usersById;
+    private final TieredCache<User> usersByEmail;
+
+    public UserCache(TieredCacheManager cacheManager) {
+        this.usersById = cacheManager.cache("users.by-id", User.class);
+        this.usersByEmail = cacheManager.cache("users.by-email", User.class);
+    }
+
+    public Optional<User> getById(Long id, Supplier<Optional<User>> loader) {
+        return usersById.get(id, loader);
+    }
+
+    public Optional<User> getByEmail(String email, Supplier<Optional<User>> loader) {
+        return usersByEmail.get(email, loader);
+    }
+
+    // previousEmail covers an email change, the entry under the old address must go too
+    public void invalidate(Long id, String previousEmail, String email) {
+        usersById.invalidate(id);
+        if (previousEmail != null) {
+            usersByEmail.invalidate(previousEmail);
+        }
+        if (email != null && !email.equals(previousEmail)) {
+            usersByEmail.invalidate(email);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.plazavea.plazavea.backend.perf;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Fetches category listings through the blocking endpoint and through the streaming one at each client count,
+// and reports throughput per CPU-second, time to first byte and the peak number of platform threads the JVM
+// needed. Clients run in the same JVM on virtual threads, so CPU figures include the client side for both.
+// The pre-encoded response cache is turned off so both paths read every listing from the database.
+//   mvn -Pperf test-compile exec:exec@stream -Dstream.clients=250,1000,4000 -Dstream.duration=30s
+public final class CatalogStreamBenchmark {
+
+    private static final String BLOCKING = "blocking";
+    private static final String STREAMING = "streaming";
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final LoadScenarioRunner dataset;
+
+    private CatalogStreamBenchmark(LoadScenarioRunner dataset) {
+        this.dataset = dataset;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = PerfApplication.start(WebApplicationType.SERVLET,
+            LoadScenarioRunner.append(args, "--server.port=0", "--gateway.rate-limit.enabled=false",
+                "--server.tomcat.max-connections=20000", "--server.tomcat.accept-count=1000",
+                "--catalog.responses.max-size=0"));
+        try {
+            Environment env = context.getEnvironment();
+            CatalogStreamBenchmark benchmark = new CatalogStreamBenchmark(LoadScenarioRunner.prepare(context));
+            Duration warmup = env.getProperty("stream.warmup", Duration.class, Duration.ofSeconds(5));
+            Duration duration = env.getProperty("stream.duration", Duration.class, Duration.ofSeconds(30));
+            int[] clientCounts = env.getProperty("stream.clients", int[].class, new int[] {250, 1000, 4000});
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int clients : clientCounts) {
+                for (String path : new String[] {BLOCKING, STREAMING}) {
+                    rows.add(benchmark.run(path, clients, warmup, duration));
+                }
+            }
+
+            System.out.printf("%n%-10s %8s %9s %11s %10s %10s %10s %7s %8s%n", "path", "clients", "req/s",
+                "req/cpu-s", "ttfb p50", "ttfb p99", "total p99", "errors", "threads");
+            for (Map<String, Object> row : rows) {
+                System.out.printf("%-10s %8d %9.1f %11.1f %10.2f %10.2f %10.2f %7d %8d%n", row.get("path"),
+                    row.get("clients"), row.get("throughput"), row.get("requestsPerCpuSecond"), row.get("ttfbP50"),
+                    row.get("ttfbP99"), row.get("totalP99"), row.get("errors"), row.get("peakPlatformThreads"));
+            }
+            LoadScenarioRunner.writeReport(Map.of("runs", rows),
+                env.getProperty("stream.report", "target/catalog-stream-report.json"));
+        } finally {
+            context.close();
+        }
+    }
+
+    private Map<String, Object> run(String path, int clients, Duration warmup, Duration duration) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        List<Sample> samples = new ArrayList<>();
+        long cpuBefore = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<Sample>>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> fetch(path, measureFrom, measureUntil)));
+            }
+            Thread.sleep(Math.max(0, (measureFrom - System.nanoTime()) / 1_000_000));
+            threads.resetPeakThreadCount();
+            cpuBefore = os.getProcessCpuTime();
+            for (Future<List<Sample>> future : futures) {
+                samples.addAll(future.get());
+            }
+        }
+        double cpuSeconds = (os.getProcessCpuTime() - cpuBefore) / 1e9;
+
+        long[] ttfb = samples.stream().filter(sample -> !sample.failed).mapToLong(sample -> sample.ttfb).sorted().toArray();
+        long[] total = samples.stream().filter(sample -> !sample.failed).mapToLong(sample -> sample.total).sorted().toArray();
+        long errors = samples.stream().filter(sample -> sample.failed).count();
+        double seconds = duration.toNanos() / 1e9;
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("path", path);
+        row.put("clients", clients);
+        row.put("requests", total.length);
+        row.put("errors", errors);
+        row.put("throughput", total.length / seconds);
+        row.put("requestsPerCpuSecond", cpuSeconds > 0 ? total.length / cpuSeconds : 0.0);
+        row.put("ttfbP50", percentileMillis(ttfb, 0.50));
+        row.put("ttfbP99", percentileMillis(ttfb, 0.99));
+        row.put("totalP50", percentileMillis(total, 0.50));
+        row.put("totalP99", percentileMillis(total, 0.99));
+        row.put("peakPlatformThreads", threads.getPeakThreadCount());
+        System.out.printf("%s with %d clients: %.1f req/s, %d errors%n", path, clients, total.length / seconds, errors);
+        return row;
+    }
+
+    private List<Sample> fetch(String path, long measureFrom, long measureUntil) {
+        List<Sample> samples = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> shelfIds = dataset.shelfIds();
+        byte[] buffer = new byte[8192];
+        while (System.nanoTime() < measureUntil) {
+            Long shelfId = shelfIds.get(random.nextInt(shelfIds.size()));
+            HttpRequest request = path.equals(BLOCKING)
+                ? HttpRequest.newBuilder(URI.create(dataset.baseUrl() + "/api/products/search?category=" + shelfId)).build()
+                : HttpRequest.newBuilder(URI.create(dataset.baseUrl() + "/api/stream/products?category=" + shelfId))
+                    .header("Accept", "application/x-ndjson").build();
+            long started = System.nanoTime();
+            Sample sample = new Sample();
+            try {
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    // send returns on the headers, the first read waits for the first body bytes
+                    if (body.read(buffer) >= 0) {
+                        sample.ttfb = System.nanoTime() - started;
+                    }
+                    while (body.read(buffer) >= 0) {
+                        // drain
+                    }
+                }
+                sample.failed = response.statusCode() >= 400;
+            } catch (Exception e) {
+                sample.failed = true;
+            }
+            sample.total = System.nanoTime() - started;
+            if (started >= measureFrom) {
+                samples.add(sample);
+            }
+        }
+        return samples;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Sample {
+        long ttfb;
+        long total;
+        boolean failed;
+    }
+}
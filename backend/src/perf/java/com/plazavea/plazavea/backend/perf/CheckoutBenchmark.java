@@ -0,0 +1,84 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.plazavea.plazavea.backend.controller.OrderController;
+import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// POST /api/orders through the controller: pricing, stock reservation, order insert and batched items
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(time = 2)
+@Measurement(time = 2)
+public class CheckoutBenchmark {
+
+    private static final int PRODUCT_COUNT = 10_000;
+    private static final int BASKETS = 1024;
+
+    @Param({"1", "10", "50"})
+    public int basketSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderController orderController;
+    private List<Long> productIds;
+    private User user;
+    private OrderController.OrderRequest[] baskets;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PerfApplication.start(WebApplicationType.NONE);
+        DatasetGenerator generator = new DatasetGenerator(context.getBean(JdbcTemplate.class), 42);
+        productIds = new ArrayList<>(generator.seedProducts(PRODUCT_COUNT, generator.seedCategoryTree(4, 5, 2), Integer.MAX_VALUE / 2));
+        user = new User();
+        user.setId(generator.seedUsers(1).get(0));
+        orderController = context.getBean(OrderController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Drawing the products is not part of a checkout, so each iteration gets fresh baskets up front
+    @Setup(Level.Iteration)
+    public void buildBaskets() {
+        baskets = new OrderController.OrderRequest[BASKETS];
+        for (int b = 0; b < BASKETS; b++) {
+            Collections.shuffle(productIds, random);
+            List<OrderController.OrderItemRequest> items = new ArrayList<>(basketSize);
+            for (int i = 0; i < basketSize; i++) {
+                OrderController.OrderItemRequest item = new OrderController.OrderItemRequest();
+                item.setProductId(productIds.get(i));
+                item.setQuantity(1 + random.nextInt(3));
+                items.add(item);
+            }
+            OrderController.OrderRequest request = new OrderController.OrderRequest();
+            request.setUser(user);
+            request.setPaymentProvider("culqi");
+            request.setItems(items);
+            baskets[b] = request;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public ResponseEntity<Order> createOrder(Cursor cursor) {
+        return orderController.createOrder(baskets[cursor.next++ & (BASKETS - 1)]);
+    }
+}
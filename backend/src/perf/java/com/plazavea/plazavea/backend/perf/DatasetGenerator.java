@@ -0,0 +1,204 @@
+package com.plazavea.plazavea.backend.perf;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// Seeds a synthetic catalog straight through JDBC batches; the same seed always yields the same data
+public class DatasetGenerator {
+
+    static final String[] PRODUCT_NOUNS = {
+        "arroz", "azucar", "leche", "yogurt", "queso", "mantequilla", "aceite", "fideos", "atun", "galletas",
+        "cafe", "te", "chocolate", "cereal", "avena", "harina", "detergente", "jabon", "shampoo", "papel",
+        "agua", "gaseosa", "jugo", "cerveza", "vino", "pollo", "carne", "pescado", "manzana", "platano",
+        "naranja", "limon", "papa", "tomate", "cebolla", "zanahoria", "palta", "pan", "huevos", "mermelada"};
+    static final String[] PRODUCT_ADJECTIVES = {
+        "integral", "light", "organico", "premium", "familiar", "clasico", "extra", "natural", "sin azucar",
+        "deslactosado", "picante", "dulce", "fresco", "congelado", "importado", "artesanal"};
+    static final String[] BRANDS = {
+        "Bell's", "Gloria", "Laive", "Costeño", "Don Vittorio", "Primor", "Alacena", "Nestle", "Pilsen", "Tottus"};
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    // Departments, their aisles and the shelves under them, products only hang from the shelves
+    public List<Long> seedCategoryTree(int departments, int aislesPerDepartment, int shelvesPerAisle) {
+        List<Long> shelves = new ArrayList<>();
+        for (int d = 1; d <= departments; d++) {
+            long department = insertCategory("Departamento " + d, null);
+            for (int a = 1; a <= aislesPerDepartment; a++) {
+                long aisle = insertCategory("Pasillo " + d + "." + a, department);
+                List<Object[]> rows = new ArrayList<>(shelvesPerAisle);
+                for (int s = 1; s <= shelvesPerAisle; s++) {
+                    rows.add(new Object[] {"Góndola " + d + "." + a + "." + s, aisle});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO categories (name, parent_id) VALUES (?, ?)", rows);
+                shelves.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM categories WHERE parent_id = ? ORDER BY id", Long.class, aisle));
+            }
+        }
+        return shelves;
+    }
+
+    public List<Long> seedUsers(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[] {"Cliente " + i, "cliente" + i + "@plazavea.test", "hash",
+                Timestamp.valueOf(now.minusMinutes(count - i))});
+            if (rows.size() == BATCH_SIZE || i == count) {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO users (name, email, password_hash, created_at) VALUES (?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+    }
+
+    public List<Long> seedProducts(int count, List<Long> categoryIds, int inventory) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= count; i++) {
+            String noun = pick(PRODUCT_NOUNS);
+            String name = capitalize(noun) + " " + pick(BRANDS) + " " + pick(PRODUCT_ADJECTIVES) + " " + (1 + random.nextInt(2000)) + "g";
+            long priceCents = 150 + random.nextInt(20_000);
+            long discountCents = random.nextInt(5) == 0 ? priceCents * (5 + random.nextInt(30)) / 100 : 0;
+            rows.add(new Object[] {
+                String.format("SKU-%07d", i),
+                name,
+                "Presentación " + pick(PRODUCT_ADJECTIVES) + " de " + noun + " " + pick(PRODUCT_NOUNS),
+                categoryIds.get(random.nextInt(categoryIds.size())),
+                priceCents,
+                discountCents,
+                inventory,
+                "https://cdn.plazavea.test/products/" + i + ".jpg",
+                Timestamp.valueOf(now.minusSeconds(count - i))});
+            if (rows.size() == BATCH_SIZE || i == count) {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO products (sku, name, description, category_id, price_cents, discount_cents, inventory, image_url, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM products ORDER BY id", Long.class);
+    }
+
+    public List<Long> seedCarts(List<Long> userIds, List<Long> productIds, int count, int maxItems) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> owners = userIds.subList(0, Math.min(count, userIds.size()));
+        List<Object[]> carts = new ArrayList<>(owners.size());
+        for (Long userId : owners) {
+            carts.add(new Object[] {userId, Timestamp.valueOf(now.minusMinutes(random.nextInt(10_000)))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO carts (user_id, updated_at) VALUES (?, ?)", carts);
+        List<Long> cartIds = jdbcTemplate.queryForList("SELECT id FROM carts ORDER BY id", Long.class);
+
+        List<Object[]> items = new ArrayList<>(BATCH_SIZE);
+        for (Long cartId : cartIds) {
+            for (Long productId : distinctProducts(productIds, 1 + random.nextInt(maxItems))) {
+                items.add(new Object[] {cartId, productId, 1 + random.nextInt(4)});
+            }
+            if (items.size() >= BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (?, ?, ?)", items);
+                items.clear();
+            }
+        }
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (?, ?, ?)", items);
+        }
+        return cartIds;
+    }
+
+    // Order history spread over the last ninety days; paid orders come with their payment and receipt
+    public void seedOrders(List<Long> userIds, List<Long> productIds, int count, int maxItems) {
+        Map<Long, Long> prices = new HashMap<>();
+        jdbcTemplate.query("SELECT id, price_cents FROM products",
+            (RowCallbackHandler) rs -> prices.put(rs.getLong(1), rs.getLong(2)));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int offset = 0; offset < count; offset += BATCH_SIZE) {
+            int batch = Math.min(BATCH_SIZE, count - offset);
+            List<Object[]> orders = new ArrayList<>(batch);
+            List<List<Object[]>> itemsByOrder = new ArrayList<>(batch);
+            for (int i = 0; i < batch; i++) {
+                LocalDateTime createdAt = now.minusMinutes((long) (count - offset - i) * 90 * 24 * 60 / count);
+                List<Object[]> items = new ArrayList<>();
+                long total = 0;
+                for (Long productId : distinctProducts(productIds, 1 + random.nextInt(maxItems))) {
+                    int quantity = 1 + random.nextInt(3);
+                    long price = prices.get(productId);
+                    items.add(new Object[] {null, productId, quantity, price});
+                    total += price * quantity;
+                }
+                orders.add(new Object[] {userIds.get(random.nextInt(userIds.size())), orderStatus(), total, "PEN",
+                    "culqi", Timestamp.valueOf(createdAt)});
+                itemsByOrder.add(items);
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO orders (user_id, status, total_cents, currency, payment_provider, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", orders);
+            List<Long> orderIds = jdbcTemplate.queryForList(
+                "SELECT id FROM orders ORDER BY id DESC LIMIT ?", Long.class, batch);
+
+            List<Object[]> items = new ArrayList<>();
+            List<Object[]> payments = new ArrayList<>();
+            List<Object[]> receipts = new ArrayList<>();
+            for (int i = 0; i < batch; i++) {
+                Long orderId = orderIds.get(batch - 1 - i);
+                for (Object[] item : itemsByOrder.get(i)) {
+                    item[0] = orderId;
+                    items.add(item);
+                }
+                Object[] order = orders.get(i);
+                if ("paid".equals(order[1])) {
+                    payments.add(new Object[] {orderId, "culqi", "chr_" + orderId, "paid", order[5]});
+                    receipts.add(new Object[] {orderId, "https://cdn.plazavea.test/receipts/" + orderId + ".pdf", order[5]});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO order_items (order_id, product_id, quantity, unit_price_cents) VALUES (?, ?, ?, ?)", items);
+            jdbcTemplate.batchUpdate("INSERT INTO payments (order_id, provider, provider_payment_id, status, created_at) VALUES (?, ?, ?, ?, ?)", payments);
+            jdbcTemplate.batchUpdate("INSERT INTO receipts (order_id, pdf_url, created_at) VALUES (?, ?, ?)", receipts);
+        }
+    }
+
+    private long insertCategory(String name, Long parentId) {
+        jdbcTemplate.update("INSERT INTO categories (name, parent_id) VALUES (?, ?)", name, parentId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM categories", Long.class);
+    }
+
+    private List<Long> distinctProducts(List<Long> productIds, int count) {
+        Set<Long> picked = new LinkedHashSet<>();
+        while (picked.size() < Math.min(count, productIds.size())) {
+            picked.add(productIds.get(random.nextInt(productIds.size())));
+        }
+        return new ArrayList<>(picked);
+    }
+
+    private String orderStatus() {
+        int roll = random.nextInt(100);
+        return roll < 80 ? "paid" : roll < 92 ? "cancelled" : "pending";
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.plazavea.plazavea.backend.datasource.ConnectionPoolMonitor;
+import com.plazavea.plazavea.backend.gateway.GatewayMetricsService;
+import com.plazavea.plazavea.backend.gateway.GatewayRequestMetrics;
+import com.plazavea.plazavea.backend.gateway.GatewayRoutes;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-request bookkeeping of the metrics filter and the legacy client recording endpoints
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(time = 2)
+@Measurement(time = 2)
+public class GatewayRecordingBenchmark {
+
+    private static final String[] ROUTES = {"/api/products/{id}", "/api/products", "/api/orders", "/api/users/{id}"};
+
+    private GatewayRequestMetrics requestMetrics;
+    private GatewayMetricsService metricsService;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        GatewayRoutes gatewayRoutes = new GatewayRoutes();
+        requestMetrics = new GatewayRequestMetrics(gatewayRoutes, meterRegistry);
+        // no pools outside the application, the snapshot cost measured is the request metrics
+        metricsService = new GatewayMetricsService(meterRegistry, gatewayRoutes, requestMetrics,
+            new ConnectionPoolMonitor(List.of(), meterRegistry, 0.9));
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void recordServerRequest(Cursor cursor) {
+        String route = ROUTES[cursor.next++ & (ROUTES.length - 1)];
+        requestMetrics.requestStarted();
+        requestMetrics.requestFinished(route, "GET", 200, System.nanoTime() - 1_500_000);
+    }
+
+    @Benchmark
+    public void recordClientDuration() {
+        metricsService.recordRequest();
+        metricsService.recordRequestDuration(12);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object snapshotMetrics() {
+        return metricsService.getCurrentMetrics();
+    }
+}
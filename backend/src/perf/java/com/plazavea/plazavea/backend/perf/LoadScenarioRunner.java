@@ -0,0 +1,315 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.plazavea.plazavea.backend.catalog.ProductSearchIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Seeds the embedded database, starts the backend on a random port and has virtual shoppers browse,
+// search, fill their carts and check out over HTTP. Prints and writes per-endpoint throughput and latency.
+//   mvn -Pperf test-compile exec:exec@load -Dload.users=32 -Dload.duration=60s -Dload.scenario=mixed
+public final class LoadScenarioRunner {
+
+    private static final double CHECKOUT_RATIO = 0.3;
+
+    private final String baseUrl;
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Long> userIds;
+    private final List<Long> productIds;
+    private final List<Long> shelfIds;
+
+    private LoadScenarioRunner(String baseUrl, List<Long> userIds, List<Long> productIds, List<Long> shelfIds) {
+        this.baseUrl = baseUrl;
+        this.userIds = userIds;
+        this.productIds = productIds;
+        this.shelfIds = shelfIds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // every shopper connects from localhost, so per-client rate limits would throttle the whole run
+        ConfigurableApplicationContext context = PerfApplication.start(WebApplicationType.SERVLET,
+            append(args, "--server.port=0", "--gateway.rate-limit.enabled=false"));
+        try {
+            Environment env = context.getEnvironment();
+            LoadScenarioRunner runner = prepare(context);
+            Map<String, Object> report = runner.run(
+                env.getProperty("load.users", Integer.class, 32),
+                env.getProperty("load.warmup", Duration.class, Duration.ofSeconds(10)),
+                env.getProperty("load.duration", Duration.class, Duration.ofSeconds(60)),
+                env.getProperty("load.scenario", Scenario.class, Scenario.MIXED));
+            writeReport(report, env.getProperty("load.report", "target/load-report.json"));
+        } finally {
+            context.close();
+        }
+    }
+
+    // Seeds the dataset into a started backend and returns a runner pointed at its port
+    static LoadScenarioRunner prepare(ConfigurableApplicationContext context) {
+        Environment env = context.getEnvironment();
+        DatasetGenerator generator = new DatasetGenerator(context.getBean(JdbcTemplate.class),
+            env.getProperty("dataset.seed", Long.class, 42L));
+
+        long seedStarted = System.nanoTime();
+        List<Long> shelfIds = generator.seedCategoryTree(12, 5, 4);
+        List<Long> productIds = generator.seedProducts(env.getProperty("dataset.products", Integer.class, 100_000),
+            shelfIds, 1_000_000);
+        List<Long> userIds = generator.seedUsers(env.getProperty("dataset.users", Integer.class, 10_000));
+        generator.seedCarts(userIds, productIds, env.getProperty("dataset.carts", Integer.class, 2_000), 6);
+        generator.seedOrders(userIds, productIds, env.getProperty("dataset.orders", Integer.class, 20_000), 5);
+        ProductSearchIndex searchIndex = context.getBean(ProductSearchIndex.class);
+        searchIndex.rebuild();
+        PerfApplication.awaitSearchIndex(searchIndex);
+        System.out.printf("Seeded %d products, %d users in %d ms%n", productIds.size(), userIds.size(),
+            (System.nanoTime() - seedStarted) / 1_000_000);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return new LoadScenarioRunner("http://localhost:" + port, userIds, productIds, shelfIds);
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    List<Long> shelfIds() {
+        return shelfIds;
+    }
+
+    static void writeReport(Object report, String path) throws Exception {
+        File reportFile = new File(path);
+        reportFile.getParentFile().mkdirs();
+        new ObjectMapper().writer(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+        System.out.println("Report written to " + reportFile.getAbsolutePath());
+    }
+
+    Map<String, Object> run(int users, Duration warmup, Duration duration, Scenario scenario) throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        // shoppers spend their time waiting on the server, so thousands of them fit on virtual threads
+        Map<String, LatencyLog> merged = new TreeMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Map<String, LatencyLog>>> shoppers = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                // a user per shopper, until there are more shoppers than users, so carts are not shared
+                Long userId = userIds.get(i % userIds.size());
+                shoppers.add(executor.submit(() -> shop(scenario, userId, measureFrom, measureUntil)));
+            }
+            for (Future<Map<String, LatencyLog>> shopper : shoppers) {
+                shopper.get().forEach((endpoint, log) -> merged.computeIfAbsent(endpoint, key -> new LatencyLog()).addAll(log));
+            }
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long total = 0;
+        System.out.printf("%n%-40s %8s %7s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, LatencyLog> entry : merged.entrySet()) {
+            LatencyLog log = entry.getValue();
+            long[] latencies = log.sorted();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", latencies.length);
+            row.put("errors", log.errors);
+            row.put("errorStatuses", log.errorStatuses);
+            row.put("throughput", latencies.length / seconds);
+            row.put("p50", percentileMillis(latencies, 0.50));
+            row.put("p90", percentileMillis(latencies, 0.90));
+            row.put("p99", percentileMillis(latencies, 0.99));
+            row.put("max", percentileMillis(latencies, 1.0));
+            endpoints.put(entry.getKey(), row);
+            total += latencies.length;
+            System.out.printf("%-40s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), latencies.length, log.errors,
+                latencies.length / seconds, row.get("p50"), row.get("p90"), row.get("p99"), row.get("max"));
+        }
+        long[] all = allLatencies(merged.values());
+        long errors = merged.values().stream().mapToLong(log -> log.errors).sum();
+        System.out.printf("%nTotal %.1f req/s with %d %s shoppers over %s%n", total / seconds, users,
+            scenario.name().toLowerCase(), duration);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", scenario.name());
+        report.put("users", users);
+        report.put("durationSeconds", seconds);
+        report.put("throughput", total / seconds);
+        report.put("errors", errors);
+        report.put("p50", percentileMillis(all, 0.50));
+        report.put("p99", percentileMillis(all, 0.99));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    // One shopper repeating browse -> search -> product -> cart -> (sometimes) checkout until time is up.
+    // CATALOG stops after the product page, CHECKOUT skips browsing and always places the order
+    private Map<String, LatencyLog> shop(Scenario scenario, Long userId, long measureFrom, long measureUntil) {
+        Map<String, LatencyLog> logs = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < measureUntil) {
+            try {
+                Long productId = productIds.get(random.nextInt(productIds.size()));
+                if (scenario != Scenario.CHECKOUT) {
+                    call(logs, measureFrom, "GET /api/categories", get("/api/categories"));
+                    call(logs, measureFrom, "GET /api/products", get("/api/products?size=20"));
+                    call(logs, measureFrom, "GET /api/products/category/{id}",
+                        get("/api/products/category/" + shelfIds.get(random.nextInt(shelfIds.size()))));
+
+                    String term = DatasetGenerator.PRODUCT_NOUNS[random.nextInt(DatasetGenerator.PRODUCT_NOUNS.length)];
+                    JsonNode results = call(logs, measureFrom, "GET /api/products/search",
+                        get("/api/products/search?limit=20&search=" + term));
+                    if (results != null && results.size() > 0) {
+                        productId = results.get(random.nextInt(results.size())).get("id").asLong();
+                    }
+                    call(logs, measureFrom, "GET /api/products/{id}", get("/api/products/" + productId));
+                    if (scenario == Scenario.CATALOG) {
+                        continue;
+                    }
+                }
+
+                JsonNode cart = call(logs, measureFrom, "GET /api/carts/user/{userId}", get("/api/carts/user/" + userId));
+                if (cart == null) {
+                    continue;
+                }
+                long cartId = cart.get("id").asLong();
+                List<Long> basket = new ArrayList<>();
+                basket.add(productId);
+                for (int i = random.nextInt(3); i > 0; i--) {
+                    basket.add(productIds.get(random.nextInt(productIds.size())));
+                }
+                for (Long item : basket) {
+                    call(logs, measureFrom, "POST /api/carts/{id}/items", post("/api/carts/" + cartId + "/items",
+                        Map.of("cart", Map.of("id", cartId), "product", Map.of("id", item), "quantity", 1)));
+                }
+
+                if (scenario == Scenario.CHECKOUT || random.nextDouble() < CHECKOUT_RATIO) {
+                    List<Map<String, Object>> lines = new ArrayList<>();
+                    for (Long item : basket) {
+                        lines.add(Map.of("productId", item, "quantity", 1));
+                    }
+                    call(logs, measureFrom, "POST /api/orders",
+                        post("/api/orders", Map.of("user", Map.of("id", userId), "items", lines)));
+                    call(logs, measureFrom, "DELETE /api/carts/{id}/items", HttpRequest.newBuilder(uri("/api/carts/" + cartId + "/items"))
+                        .DELETE().build());
+                }
+            } catch (Exception e) {
+                logs.computeIfAbsent("client errors", key -> new LatencyLog()).fail(0);
+            }
+        }
+        return logs;
+    }
+
+    private JsonNode call(Map<String, LatencyLog> logs, long measureFrom, String endpoint, HttpRequest request) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        long elapsed = System.nanoTime() - started;
+
+        boolean failed = response.statusCode() >= 400;
+        if (started >= measureFrom) {
+            LatencyLog log = logs.computeIfAbsent(endpoint, key -> new LatencyLog());
+            log.add(elapsed);
+            if (failed) {
+                log.fail(response.statusCode());
+            }
+        }
+        return failed || response.body().length == 0 ? null : objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) throws Exception {
+        return HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+            .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static long[] allLatencies(Iterable<LatencyLog> logs) {
+        LatencyLog all = new LatencyLog();
+        for (LatencyLog log : logs) {
+            all.addAll(log);
+        }
+        return all.sorted();
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    static String[] append(String[] args, String... extra) {
+        String[] all = Arrays.copyOf(args, args.length + extra.length);
+        System.arraycopy(extra, 0, all, args.length, extra.length);
+        return all;
+    }
+
+    enum Scenario {
+        MIXED, CATALOG, CHECKOUT
+    }
+
+    // Growable array of nanosecond latencies owned by a single shopper thread until merged
+    private static final class LatencyLog {
+
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+        private final Map<Integer, Long> errorStatuses = new TreeMap<>();
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void fail(int status) {
+            errors++;
+            errorStatuses.merge(status, 1L, Long::sum);
+        }
+
+        void addAll(LatencyLog other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+            errors += other.errors;
+            other.errorStatuses.forEach((status, count) -> errorStatuses.merge(status, count, Long::sum));
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
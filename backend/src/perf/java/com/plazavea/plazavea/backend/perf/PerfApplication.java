@@ -0,0 +1,45 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.plazavea.plazavea.backend.PlazaveaBackendApplication;
+import com.plazavea.plazavea.backend.catalog.ProductSearchIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.function.BooleanSupplier;
+
+// Boots the backend against the embedded H2 database of the perf profile
+public final class PerfApplication {
+
+    private PerfApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PlazaveaBackendApplication.class)
+            .profiles("perf")
+            .web(webApplicationType)
+            .run(args);
+        awaitSearchIndex(context.getBean(ProductSearchIndex.class));
+        return context;
+    }
+
+    public static void awaitSearchIndex(ProductSearchIndex searchIndex) {
+        awaitReady(searchIndex::isReady, "Product search index");
+    }
+
+    // Indexes build for seconds on a background thread, spinning here would take a core from them
+    public static void awaitReady(BooleanSupplier ready, String name) {
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (!ready.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(name + " did not become ready");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.plazavea.plazavea.backend.catalog.CategoryTree;
+import com.plazavea.plazavea.backend.catalog.ProductFacetIndex;
+import com.plazavea.plazavea.backend.catalog.ProductFacetPage;
+import com.plazavea.plazavea.backend.catalog.ProductFacetQuery;
+import com.plazavea.plazavea.backend.controller.ProductController;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// GET /api/products/filter: the bitset query and facet counts alone, and the full request including the page load
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(time = 2)
+@Measurement(time = 2)
+public class ProductFacetBenchmark {
+
+    @Param({"100000"})
+    public int productCount;
+
+    @Param({"catalog", "department", "shelf"})
+    public String scope;
+
+    private ConfigurableApplicationContext context;
+    private ProductController productController;
+    private ProductFacetIndex facetIndex;
+    private Long categoryId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PerfApplication.start(WebApplicationType.NONE);
+        DatasetGenerator generator = new DatasetGenerator(context.getBean(JdbcTemplate.class), 42);
+        generator.seedProducts(productCount, generator.seedCategoryTree(4, 5, 2), 100);
+
+        facetIndex = context.getBean(ProductFacetIndex.class);
+        PerfApplication.awaitReady(facetIndex::isReady, "Product facet index");
+        facetIndex.rebuild();
+        productController = context.getBean(ProductController.class);
+
+        CategoryTree categoryTree = context.getBean(CategoryTree.class);
+        categoryTree.rebuild();
+        Long department = categoryTree.roots().get(0).id();
+        categoryId = switch (scope) {
+            case "department" -> department;
+            case "shelf" -> categoryTree.subtreeIds(department).get(categoryTree.subtreeIds(department).size() - 1);
+            default -> null;
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductFacetIndex.Result facetQuery() {
+        return facetIndex.query(new ProductFacetQuery(categoryId, 1000L, 20000L, false, true,
+            ProductFacetQuery.Sort.PRICE_ASC), 0, 50);
+    }
+
+    @Benchmark
+    public ResponseEntity<ProductFacetPage> filterRequest() {
+        return productController.filterProducts(categoryId, 1000L, 20000L, false, true, "price_asc", 0, 50);
+    }
+}
@@ -0,0 +1,61 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.plazavea.plazavea.backend.catalog.ProductSearchIndex;
+import com.plazavea.plazavea.backend.controller.ProductController;
+import com.plazavea.plazavea.backend.model.Product;
+import com.plazavea.plazavea.backend.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/products/search served from the in-memory index, against the LIKE query it replaced
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(time = 2)
+@Measurement(time = 2)
+public class ProductSearchBenchmark {
+
+    @Param({"100000"})
+    public int productCount;
+
+    @Param({"leche", "arroz integral", "SKU-0042"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private ProductController productController;
+    private ProductRepository productRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PerfApplication.start(WebApplicationType.NONE);
+        DatasetGenerator generator = new DatasetGenerator(context.getBean(JdbcTemplate.class), 42);
+        generator.seedProducts(productCount, generator.seedCategoryTree(4, 5, 2), 100);
+
+        ProductSearchIndex searchIndex = context.getBean(ProductSearchIndex.class);
+        searchIndex.rebuild();
+        PerfApplication.awaitSearchIndex(searchIndex);
+        productController = context.getBean(ProductController.class);
+        productRepository = context.getBean(ProductRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Product>> searchIndex() {
+        return productController.searchProducts(null, query, 50);
+    }
+
+    @Benchmark
+    public List<Product> searchJpql() {
+        return productRepository.findByNameOrDescriptionOrSkuContaining(query);
+    }
+}
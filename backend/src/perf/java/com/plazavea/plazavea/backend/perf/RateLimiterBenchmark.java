@@ -0,0 +1,56 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.plazavea.plazavea.backend.gateway.GatewayRoutes;
+import com.plazavea.plazavea.backend.gateway.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Sampled latency of the rate limit decision, the p99 in the JSON result is the number to watch (budget: 1 us)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(time = 2)
+@Measurement(time = 2)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 4096;
+
+    // per minute: roomy enough that every request passes, or tight enough that most are throttled
+    @Param({"1000000000", "100"})
+    public int rateLimit;
+
+    private RateLimiter rateLimiter;
+    private String[] clients;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter(new SimpleMeterRegistry(), Duration.ofMinutes(1), 100_000);
+        clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "10.0." + (i >> 8) + "." + (i & 255);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public long tryAcquire(Cursor cursor) {
+        return rateLimiter.tryAcquire("/api/products/**", rateLimit, clients[cursor.next++ & (CLIENTS - 1)]);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Routes {
+        final GatewayRoutes gatewayRoutes = new GatewayRoutes();
+    }
+
+    @Benchmark
+    public String resolveRoute(Routes routes) {
+        return routes.gatewayRoutes.routeFor("/api/orders/12345/status");
+    }
+}
@@ -0,0 +1,126 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.plazavea.plazavea.backend.model.Cart;
+import com.plazavea.plazavea.backend.model.CartItem;
+import com.plazavea.plazavea.backend.model.Category;
+import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.model.Payment;
+import com.plazavea.plazavea.backend.model.Product;
+import com.plazavea.plazavea.backend.model.Receipt;
+import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.order.OrderItemSummary;
+import com.plazavea.plazavea.backend.order.OrderSummary;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the payloads the storefront requests most, configured like Spring Boot's mapper
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(time = 2)
+@Measurement(time = 2)
+public class SerializationBenchmark {
+
+    @Param({"3", "25"})
+    public int itemCount;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private Order order;
+    private OrderSummary orderSummary;
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        Category category = new Category("Lácteos", null);
+        category.setId(3L);
+        User user = new User("Ana Torres", "ana@plazavea.test", "999888777", "hash");
+        user.setId(7L);
+        user.setCreatedAt(now);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            products.add(product(i + 1L, category, now));
+        }
+        product = products.get(0);
+
+        order = new Order();
+        order.setId(42L);
+        order.setUser(user);
+        order.setTotalCents(25_990L);
+        order.setPaymentProvider("culqi");
+        order.setCreatedAt(now);
+        Payment payment = new Payment(order, "culqi", "chr_test_123", "paid", "{\"id\":\"chr_test_123\"}");
+        payment.setId(9L);
+        payment.setCreatedAt(now);
+        Receipt receipt = new Receipt(order, "https://cdn.plazavea.test/receipts/42.pdf");
+        receipt.setId(5L);
+        order.setPayment(payment);
+        order.setReceipt(receipt);
+
+        List<OrderItemSummary> items = new ArrayList<>();
+        for (Product item : products) {
+            items.add(new OrderItemSummary(42L, item.getId(), 2, item.getPriceCents(),
+                item.getId(), item.getSku(), item.getName(), item.getImageUrl()));
+        }
+        orderSummary = new OrderSummary(42L, "paid", 25_990L, "PEN", "culqi", now, 7L, user.getName(), user.getEmail())
+            .withDetails("paid", receipt.getPdfUrl(), items);
+
+        cart = new Cart(user);
+        cart.setId(11L);
+        List<CartItem> cartItems = new ArrayList<>();
+        for (Product item : products) {
+            CartItem cartItem = new CartItem(cart, item, 1);
+            cartItem.setId(item.getId());
+            cartItems.add(cartItem);
+        }
+        cart.setItems(cartItems);
+    }
+
+    @Benchmark
+    public byte[] product() throws Exception {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] orderWithPaymentAndReceipt() throws Exception {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderSummaryWithItems() throws Exception {
+        return objectMapper.writeValueAsBytes(orderSummary);
+    }
+
+    @Benchmark
+    public byte[] cartWithItems() throws Exception {
+        return objectMapper.writeValueAsBytes(cart);
+    }
+
+    private static Product product(long id, Category category, LocalDateTime now) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSku(String.format("SKU-%07d", id));
+        product.setName("Leche Gloria evaporada " + id);
+        product.setDescription("Leche evaporada entera en lata de 400 g, ideal para postres y café");
+        product.setCategory(category);
+        product.setPriceCents(459L);
+        product.setDiscountCents(40L);
+        product.setInventory(120);
+        product.setImageUrl("https://cdn.plazavea.test/products/" + id + ".jpg");
+        product.setCreatedAt(now);
+        return product;
+    }
+}
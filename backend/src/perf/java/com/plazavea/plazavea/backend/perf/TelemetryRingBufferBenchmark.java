@@ -0,0 +1,39 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.plazavea.plazavea.backend.gateway.TelemetryRingBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Three request threads publishing telemetry while the single consumer drains, as in ClientTelemetryService
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Group)
+@Warmup(time = 2)
+@Measurement(time = 2)
+public class TelemetryRingBufferBenchmark {
+
+    private static final Object EVENT = new Object();
+
+    private TelemetryRingBuffer<Object> buffer;
+
+    @Setup
+    public void setUp() {
+        buffer = new TelemetryRingBuffer<>(8192);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(3)
+    public boolean offer() {
+        return buffer.offer(EVENT);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(1)
+    public void poll(Blackhole blackhole) {
+        blackhole.consume(buffer.poll());
+    }
+}
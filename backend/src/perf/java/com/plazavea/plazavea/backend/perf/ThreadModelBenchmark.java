@@ -0,0 +1,94 @@
+package com.plazavea.plazavea.backend.perf;
+
+import com.plazavea.plazavea.backend.perf.LoadScenarioRunner.Scenario;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Runs the catalog and checkout scenarios at each client count against the backend on platform threads and
+// again in the virtual-threads profile, then prints both side by side. Each mode gets a fresh JVM context and
+// dataset; Tomcat accepts the same number of connections in both so only the request thread model differs.
+//   mvn -Pperf test-compile exec:exec@threads -Dthreads.clients=1000,5000,10000 -Dthreads.duration=30s
+public final class ThreadModelBenchmark {
+
+    private static final Scenario[] SCENARIOS = {Scenario.CATALOG, Scenario.CHECKOUT};
+
+    private ThreadModelBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Map<String, Map<String, Object>> byMode = new LinkedHashMap<>();
+        String reportPath = null;
+        for (String mode : new String[] {"platform", "virtual"}) {
+            String[] modeArgs = LoadScenarioRunner.append(args, "--server.port=0", "--gateway.rate-limit.enabled=false",
+                "--server.tomcat.max-connections=20000", "--server.tomcat.accept-count=1000");
+            if (mode.equals("virtual")) {
+                modeArgs = LoadScenarioRunner.append(modeArgs, "--spring.profiles.active=virtual-threads");
+            }
+            ConfigurableApplicationContext context = PerfApplication.start(WebApplicationType.SERVLET, modeArgs);
+            try {
+                Environment env = context.getEnvironment();
+                reportPath = env.getProperty("threads.report", "target/thread-model-report.json");
+                LoadScenarioRunner runner = LoadScenarioRunner.prepare(context);
+                Duration warmup = env.getProperty("threads.warmup", Duration.class, Duration.ofSeconds(5));
+                Duration duration = env.getProperty("threads.duration", Duration.class, Duration.ofSeconds(30));
+                int[] clientCounts = env.getProperty("threads.clients", int[].class, new int[] {1000, 5000, 10000});
+
+                Map<String, Object> results = new LinkedHashMap<>();
+                for (Scenario scenario : SCENARIOS) {
+                    for (int clients : clientCounts) {
+                        System.out.printf("%n== %s threads, %s, %d clients ==%n", mode, scenario.name().toLowerCase(), clients);
+                        Map<String, Object> result = runner.run(clients, warmup, duration, scenario);
+                        results.put(scenario.name() + "/" + clients, result);
+                    }
+                }
+                results.put("pinnedEvents", pinnedEvents(context.getBean(MeterRegistry.class)));
+                byMode.put(mode, results);
+            } finally {
+                context.close();
+            }
+        }
+
+        System.out.printf("%n%-10s %8s %12s %12s %10s %10s %9s %9s%n", "scenario", "clients",
+            "platform r/s", "virtual r/s", "p99 plat", "p99 virt", "err plat", "err virt");
+        Map<String, Object> platform = byMode.get("platform");
+        Map<String, Object> virtual = byMode.get("virtual");
+        for (String key : platform.keySet()) {
+            if (!(platform.get(key) instanceof Map<?, ?> p) || !(virtual.get(key) instanceof Map<?, ?> v)) {
+                continue;
+            }
+            System.out.printf("%-10s %8s %12.1f %12.1f %10.2f %10.2f %9d %9d%n",
+                p.get("scenario").toString().toLowerCase(), p.get("users"), p.get("throughput"), v.get("throughput"),
+                p.get("p99"), v.get("p99"), p.get("errors"), v.get("errors"));
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("scenario", p.get("scenario"));
+            row.put("clients", p.get("users"));
+            row.put("platform", p);
+            row.put("virtual", v);
+            rows.add(row);
+        }
+        System.out.printf("%nVirtual threads pinned %s times for longer than the threshold%n", virtual.get("pinnedEvents"));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("comparisons", rows);
+        report.put("pinnedEvents", virtual.get("pinnedEvents"));
+        LoadScenarioRunner.writeReport(report, reportPath);
+    }
+
+    private static long pinnedEvents(MeterRegistry registry) {
+        long pinned = 0;
+        for (Timer timer : registry.find("jvm.threads.virtual.pinned").timers()) {
+            pinned += timer.count();
+        }
+        return pinned;
+    }
+}
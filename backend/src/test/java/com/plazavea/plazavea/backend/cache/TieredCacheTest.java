@@ -0,0 +1,64 @@
+package com.plazavea.plazavea.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A load that read the database before a write must not leave its value in the shared tier
+class TieredCacheTest {
+
+    private final LocalInvalidationBus bus = new LocalInvalidationBus();
+    private final LocalSharedCache shared = new LocalSharedCache(DataSize.ofMegabytes(1));
+    private final TieredCache<String> a = node("node-a").cache("names", String.class);
+    private final TieredCache<String> b = node("node-b").cache("names", String.class);
+
+    @Test
+    void loadsThatRaceAnInvalidationOnTheSameNodeAreNotShared() {
+        String value = a.get(1, () -> {
+            a.invalidate(1);
+            return Optional.of("before");
+        }).orElseThrow();
+
+        assertThat(value).isEqualTo("before");
+        assertThat(shared.get("names:1")).isNull();
+        assertThat(a.get(1, () -> Optional.of("after"))).contains("after");
+    }
+
+    @Test
+    void loadsThatRaceAnInvalidationOnAnotherNodeAreNotShared() {
+        b.get(1, () -> {
+            a.invalidate(1);
+            return Optional.of("before");
+        });
+
+        assertThat(shared.get("names:1")).isNull();
+        assertThat(a.get(1, () -> Optional.of("after"))).contains("after");
+    }
+
+    @Test
+    void aRemoteInvalidationDropsAValueThisNodeSharedAfterTheOriginDeleted() {
+        shared.put("names:1", "\"before\"".getBytes(), Duration.ofMinutes(1));
+
+        b.invalidateRemote("1");
+
+        assertThat(shared.get("names:1")).isNull();
+    }
+
+    @Test
+    void quietLoadsAreShared() {
+        b.get(1, () -> Optional.of("value"));
+
+        assertThat(a.get(1, () -> Optional.of("loader not called"))).contains("value");
+    }
+
+    private TieredCacheManager node(String nodeId) {
+        return new TieredCacheManager(shared, bus, new ObjectMapper(), new SimpleMeterRegistry(),
+            nodeId, 100, Duration.ofSeconds(30), Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,101 @@
+package com.plazavea.plazavea.backend.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plazavea.plazavea.backend.cache.LocalInvalidationBus;
+import com.plazavea.plazavea.backend.cache.LocalSharedCache;
+import com.plazavea.plazavea.backend.cache.TieredCacheManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// Two nodes in one JVM: separate managers on the same bus and shared tier, booted in the same millisecond
+class CatalogVersionsTest {
+
+    private static final long BOOT = 1_000;
+
+    private final LocalInvalidationBus bus = new LocalInvalidationBus();
+    private final LocalSharedCache shared = new LocalSharedCache(DataSize.ofMegabytes(1));
+
+    private Node a;
+    private Node b;
+
+    @BeforeEach
+    void startNodes() {
+        a = new Node("node-a");
+        b = new Node("node-b");
+    }
+
+    @Test
+    void nodesBootedTogetherNeverShareATag() {
+        assertThat(a.versions.catalogEtag()).isNotEqualTo(b.versions.catalogEtag());
+        assertThat(a.versions.categoriesEtag()).isNotEqualTo(b.versions.categoriesEtag());
+        assertThat(a.versions.productEtag(1L)).isNotEqualTo(b.versions.productEtag(1L));
+    }
+
+    @Test
+    void remoteProductChangeMovesTheOtherNodesTags() {
+        String catalogBefore = b.versions.catalogEtag();
+        String productBefore = b.versions.productEtag(1L);
+        String otherProductBefore = b.versions.productEtag(2L);
+
+        a.productChanged(1L);
+
+        assertThat(b.versions.catalogEtag()).isNotEqualTo(catalogBefore);
+        assertThat(b.versions.productEtag(1L)).isNotEqualTo(productBefore);
+        assertThat(b.versions.productEtag(2L)).isEqualTo(otherProductBefore);
+    }
+
+    @Test
+    void revisionsThatDriftApartDoNotCollideAcrossNodes() {
+        // one bump on the node that checked out, one per product on the node that hears about it
+        a.stockChanged(1L, 2L);
+        String servedByB = b.versions.catalogEtag();
+
+        // a later write on b catches a up to the revision b had when it served the tag above
+        b.productChanged(3L);
+
+        assertThat(a.versions.catalogEtag()).isNotEqualTo(servedByB);
+    }
+
+    @Test
+    void nodeIdsCannotBreakOutOfTheQuotedTag() {
+        CatalogVersions versions = new CatalogVersions("web \"1\"", BOOT);
+
+        assertThat(versions.catalogEtag()).isEqualTo("\"c1000-web__1_\"");
+    }
+
+    private final class Node {
+        final CatalogVersions versions;
+        final ProductCatalogCache cache;
+
+        Node(String nodeId) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            TieredCacheManager manager = new TieredCacheManager(shared, bus, new ObjectMapper(), meterRegistry,
+                nodeId, 100, Duration.ofSeconds(30), Duration.ofMinutes(10));
+            this.versions = new CatalogVersions(nodeId, BOOT);
+            this.cache = new ProductCatalogCache(meterRegistry, manager, mock(CategoryTree.class), versions,
+                100, Duration.ofMinutes(1));
+        }
+
+        // the listeners in the order Spring calls them
+        void productChanged(Long productId) {
+            ProductState state = new ProductState(productId, null, false, true);
+            ProductChangedEvent event = new ProductChangedEvent(state, state, null);
+            cache.onProductChanged(event);
+            versions.onProductChanged(event);
+        }
+
+        void stockChanged(Long... productIds) {
+            StockChangedEvent event = new StockChangedEvent(List.of(productIds));
+            cache.onStockChanged(event);
+            versions.onStockChanged(event);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.plazavea.plazavea.backend.order;
+
+import com.plazavea.plazavea.backend.model.Category;
+import com.plazavea.plazavea.backend.model.Order;
+import com.plazavea.plazavea.backend.model.OrderItem;
+import com.plazavea.plazavea.backend.model.Payment;
+import com.plazavea.plazavea.backend.model.Product;
+import com.plazavea.plazavea.backend.model.Receipt;
+import com.plazavea.plazavea.backend.model.User;
+import com.plazavea.plazavea.backend.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A page of order summaries is one projection query plus one IN query each for items, payments and receipts,
+// so the statement count must not grow with the page
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:orders;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(OrderQueryService.class)
+class OrderListStatementsTest {
+
+    private static final int ORDERS = 12;
+    private static final String STATUS = "paid";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderQueryService orderQueryService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        HibernateMetrics.monitor(meterRegistry, entityManagerFactory.unwrap(SessionFactory.class), "orders");
+
+        Category category = entityManager.persist(new Category("Frutas", null));
+        List<Product> products = List.of(
+            entityManager.persist(new Product("PIN-1", "Piña", null, category, 500L, 0L, 100, null)),
+            entityManager.persist(new Product("MAN-1", "Mango", null, category, 300L, 50L, 100, null)),
+            entityManager.persist(new Product("PAL-1", "Palta", null, category, 800L, 0L, 100, null)));
+        user = entityManager.persist(new User("Ana", "ana@example.pe", null, "x"));
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(user, 1600L, "PEN");
+            order.setStatus(STATUS);
+            entityManager.persist(order);
+            for (Product product : products) {
+                entityManager.persist(new OrderItem(order, product, 1 + i % 3, product.getPriceCents()));
+            }
+            entityManager.persist(new Payment(order, "yape", "pay-" + i, "approved", null));
+            entityManager.persist(new Receipt(order, "/api/receipts/order/" + i + "/pdf"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 8})
+    void allOrders(int size) {
+        assertFourStatements(size, () -> orderRepository.findFirstPage(PageRequest.of(0, size)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 8})
+    void ordersOfUser(int size) {
+        assertFourStatements(size, () -> orderRepository.findFirstPageByUserId(user.getId(), PageRequest.of(0, size)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 8})
+    void ordersWithStatus(int size) {
+        assertFourStatements(size, () -> orderRepository.findFirstPageByStatus(STATUS, PageRequest.of(0, size)));
+    }
+
+    private void assertFourStatements(int size, Supplier<List<OrderSummary>> page) {
+        double before = statements();
+        List<OrderSummary> orders = orderQueryService.withDetails(page.get());
+
+        assertThat(statements() - before).isEqualTo(4);
+        assertThat(orders).hasSize(size).allSatisfy(order -> {
+            assertThat(order.user().name()).isEqualTo("Ana");
+            assertThat(order.items()).hasSize(3);
+            assertThat(order.paymentStatus()).isEqualTo("approved");
+            assertThat(order.receiptPdfUrl()).isNotNull();
+        });
+    }
+
+    private double statements() {
+        return meterRegistry.get("hibernate.statements").tag("status", "prepared").functionCounter().count();
+    }
+}
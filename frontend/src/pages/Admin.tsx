@@ -1,5 +1,5 @@
-import { useState, FormEvent } from "react";
-import { useQuery, useMutation, useQueryClient } from "@tanstack/react-query";
+import { useEffect, useState, FormEvent } from "react";
+import { keepPreviousData, useQuery, useMutation, useQueryClient } from "@tanstack/react-query";
 import { Header } from "@/components/Header";
 import { Footer } from "@/components/Footer";
 import { Button } from "@/components/ui/button";
@@ -9,12 +9,16 @@ import { Textarea } from "@/components/ui/textarea";
 import { productService } from "@/services/productService";
 import { userService } from "@/services/userService";
 import { orderService } from "@/services/orderService";
+import type { Page } from "@/services/apiClient";
 import type { Product, ProductFormValues } from "@/types/product";
 import type { ProductPayload } from "@/types/product";
 import type { User } from "@/types/user";
 import type { Order } from "@/types/order";
 import { toast } from "@/hooks/use-toast";
 
+// rows per request, the tables page through the backend instead of loading every row
+const PAGE_SIZE = 50;
+
 interface UserFormValues {
   id?: number;
   name: string;
@@ -48,6 +52,7 @@ const toProductFormValues = (product: Product): ProductFormValues => ({
   description: product.description ?? "",
   price: product.price,
   inventory: product.inventory ?? product.stock,
+  initialInventory: product.inventory ?? product.stock,
   imageUrl: product.image ?? "",
   categoryId: product.categoryId ?? null,
 });
@@ -72,29 +77,60 @@ const toUserFormValues = (user: User): UserFormValues => ({
   password: "",
 });
 
+const usePagedList = <T,>(key: string, fetchPage: (page: number, size: number) => Promise<Page<T>>) => {
+  const [page, setPage] = useState(0);
+  const query = useQuery({
+    queryKey: [key, page],
+    queryFn: () => fetchPage(page, PAGE_SIZE),
+    placeholderData: keepPreviousData,
+  });
+
+  // deleting the last row of the last page leaves it empty
+  useEffect(() => {
+    if (page > 0 && query.data && query.data.items.length === 0) {
+      setPage(page - 1);
+    }
+  }, [page, query.data]);
+
+  return { ...query, page, setPage };
+};
+
+const PageControls = ({ page, total, onChange }: { page: number; total: number; onChange: (page: number) => void }) => {
+  const pages = Math.max(1, Math.ceil(total / PAGE_SIZE));
+  return (
+    <div className="flex items-center justify-between gap-4 mt-4">
+      <p className="text-sm text-muted-foreground">
+        Página {page + 1} de {pages} • {total} registros
+      </p>
+      <div className="flex gap-2">
+        <Button variant="outline" size="sm" onClick={() => onChange(page - 1)} disabled={page === 0}>
+          Anterior
+        </Button>
+        <Button variant="outline" size="sm" onClick={() => onChange(page + 1)} disabled={page + 1 >= pages}>
+          Siguiente
+        </Button>
+      </div>
+    </div>
+  );
+};
+
 const Admin = () => {
   const [activeTab, setActiveTab] = useState<"products" | "users" | "orders">("products");
   const [productForm, setProductForm] = useState<ProductFormValues>(createEmptyProductForm);
   const [userForm, setUserForm] = useState<UserFormValues>(createEmptyUserForm);
   const queryClient = useQueryClient();
 
-  const {
-    data: products = [],
-    isLoading: productsLoading,
-    isError: productsError,
-  } = useQuery({ queryKey: ["products"], queryFn: () => productService.getAll() });
+  const productList = usePagedList("products", (page, size) => productService.getPage(page, size));
+  const { isLoading: productsLoading, isError: productsError } = productList;
+  const products = productList.data?.items ?? [];
 
-  const {
-    data: users = [],
-    isLoading: usersLoading,
-    isError: usersError,
-  } = useQuery({ queryKey: ["users"], queryFn: () => userService.getAll() });
+  const userList = usePagedList("users", (page, size) => userService.getPage(page, size));
+  const { isLoading: usersLoading, isError: usersError } = userList;
+  const users = userList.data?.items ?? [];
 
-  const {
-    data: orders = [],
-    isLoading: ordersLoading,
-    isError: ordersError,
-  } = useQuery({ queryKey: ["orders"], queryFn: () => orderService.getAll() });
+  const orderList = usePagedList("orders", (page, size) => orderService.getPage(page, size));
+  const { isLoading: ordersLoading, isError: ordersError } = orderList;
+  const orders = orderList.data?.items ?? [];
 
   const createProductMutation = useMutation({
     mutationFn: (payload: ProductPayload) => productService.create(payload),
@@ -107,8 +143,10 @@ const Admin = () => {
   });
 
   const updateProductMutation = useMutation({
-    mutationFn: ({ id, payload }: { id: number; payload: ProductPayload }) =>
-      productService.update(id, payload),
+    mutationFn: async ({ id, payload, inventory }: { id: number; payload: ProductPayload; inventory?: number }) => {
+      const product = await productService.update(id, payload);
+      return inventory !== undefined ? productService.setInventory(id, inventory) : product;
+    },
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ["products"] });
       toast({ title: "Producto actualizado" });
@@ -177,7 +215,8 @@ const Admin = () => {
     const payload = toProductPayload(productForm);
 
     if (productForm.id) {
-      await updateProductMutation.mutateAsync({ id: productForm.id, payload });
+      const inventory = productForm.inventory !== productForm.initialInventory ? productForm.inventory : undefined;
+      await updateProductMutation.mutateAsync({ id: productForm.id, payload, inventory });
     } else {
       await createProductMutation.mutateAsync(payload);
     }
@@ -360,6 +399,9 @@ const Admin = () => {
                     ))}
                   </div>
                 )}
+                {productList.data && productList.data.total > 0 && (
+                  <PageControls page={productList.page} total={productList.data.total} onChange={productList.setPage} />
+                )}
               </div>
             </section>
           ) : activeTab === "users" ? (
@@ -458,6 +500,9 @@ const Admin = () => {
                     ))}
                   </div>
                 )}
+                {userList.data && userList.data.total > 0 && (
+                  <PageControls page={userList.page} total={userList.data.total} onChange={userList.setPage} />
+                )}
               </div>
             </section>
           ) : (
@@ -521,6 +566,9 @@ const Admin = () => {
                     ))}
                   </div>
                 )}
+                {orderList.data && orderList.data.total > 0 && (
+                  <PageControls page={orderList.page} total={orderList.data.total} onChange={orderList.setPage} />
+                )}
               </div>
             </section>
           )}
@@ -9,6 +9,9 @@ import { Footer } from "@/components/Footer";
 import { productService } from "@/services/productService";
 import type { Product } from "@/types/product";
 
+// the storefront shows the newest products; a search is answered by the backend over the whole catalog
+const STOREFRONT_SIZE = 50;
+
 const Index = () => {
   const [searchParams] = useSearchParams();
   const [selectedCategory, setSelectedCategory] = useState<string | null>(null);
@@ -18,7 +21,13 @@ const Index = () => {
     data: products,
     isLoading,
     isError,
-  } = useQuery({ queryKey: ["products"], queryFn: () => productService.getAll() });
+  } = useQuery({
+    queryKey: ["products", "storefront", searchQuery],
+    queryFn: async () =>
+      searchQuery
+        ? productService.search(searchQuery)
+        : (await productService.getPage(0, STOREFRONT_SIZE)).items,
+  });
 
   const categories = useMemo(() => {
     if (!products) return [];
@@ -42,15 +51,10 @@ const Index = () => {
   const filteredProducts = useMemo(() => {
     if (!products) return [];
 
-    return products.filter((product) => {
-      const matchesCategory = selectedCategory ? product.categorySlug === selectedCategory : true;
-      const matchesSearch = searchQuery
-        ? product.name.toLowerCase().includes(searchQuery) ||
-          (product.description ?? "").toLowerCase().includes(searchQuery)
-        : true;
-      return matchesCategory && matchesSearch;
-    });
-  }, [products, selectedCategory, searchQuery]);
+    return products.filter((product) =>
+      selectedCategory ? product.categorySlug === selectedCategory : true
+    );
+  }, [products, selectedCategory]);
 
   return (
     <div className="min-h-screen flex flex-col bg-background">
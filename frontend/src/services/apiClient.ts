@@ -2,7 +2,16 @@ const DEFAULT_BASE_URL = 'http://localhost:8081/api';
 
 const API_BASE_URL = (import.meta.env.VITE_API_BASE_URL as string | undefined) ?? DEFAULT_BASE_URL;
 
-async function request<T>(endpoint: string, options: RequestInit = {}): Promise<T> {
+const TOTAL_COUNT_HEADER = 'X-Total-Count';
+
+export interface Page<T> {
+  items: T[];
+  total: number;
+  page: number;
+  size: number;
+}
+
+async function send<T>(endpoint: string, options: RequestInit = {}): Promise<{ data: T; headers: Headers }> {
   const url = `${API_BASE_URL}${endpoint}`;
   const response = await fetch(url, {
     headers: {
@@ -18,14 +27,27 @@ async function request<T>(endpoint: string, options: RequestInit = {}): Promise<
   }
 
   if (response.status === 204) {
-    return undefined as T;
+    return { data: undefined as T, headers: response.headers };
   }
 
-  return (await response.json()) as T;
+  return { data: (await response.json()) as T, headers: response.headers };
+}
+
+async function request<T>(endpoint: string, options: RequestInit = {}): Promise<T> {
+  return (await send<T>(endpoint, options)).data;
+}
+
+// List endpoints answer one numbered page when given ?page=, with the row count in X-Total-Count
+async function requestPage<T>(endpoint: string, page: number, size: number): Promise<Page<T>> {
+  const separator = endpoint.includes('?') ? '&' : '?';
+  const { data, headers } = await send<T[]>(`${endpoint}${separator}page=${page}&size=${size}`);
+  const total = Number(headers.get(TOTAL_COUNT_HEADER) ?? data.length);
+  return { items: data, total, page, size };
 }
 
 export const apiClient = {
   get: <T>(endpoint: string) => request<T>(endpoint),
+  getPage: <T>(endpoint: string, page: number, size: number) => requestPage<T>(endpoint, page, size),
   post: <T>(endpoint: string, body: unknown) =>
     request<T>(endpoint, {
       method: 'POST',
@@ -1,9 +1,9 @@
-import { apiClient } from "./apiClient";
+import { apiClient, type Page } from "./apiClient";
 import type { Order, OrderPayload } from "@/types/order";
 
 export const orderService = {
-  async getAll(): Promise<Order[]> {
-    return apiClient.get<Order[]>("/orders");
+  async getPage(page: number, size: number): Promise<Page<Order>> {
+    return apiClient.getPage<Order>("/orders", page, size);
   },
 
   async create(payload: OrderPayload): Promise<Order> {
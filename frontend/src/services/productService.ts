@@ -1,4 +1,4 @@
-import { apiClient } from "./apiClient";
+import { apiClient, type Page } from "./apiClient";
 import type { Product, ProductApi, ProductPayload } from "@/types/product";
 
 const mapApiToProduct = (apiProduct: ProductApi): Product => {
@@ -46,8 +46,12 @@ const mapProductToPayload = (product: ProductPayload): ProductPayload => {
 };
 
 export const productService = {
-  async getAll(): Promise<Product[]> {
-    const response = await apiClient.get<ProductApi[]>("/products");
+  async getPage(page: number, size: number): Promise<Page<Product>> {
+    const response = await apiClient.getPage<ProductApi>("/products", page, size);
+    return { ...response, items: response.items.map(mapApiToProduct) };
+  },
+  async search(query: string): Promise<Product[]> {
+    const response = await apiClient.get<ProductApi[]>(`/products/search?search=${encodeURIComponent(query)}`);
     return response.map(mapApiToProduct);
   },
   async getById(id: number): Promise<Product> {
@@ -62,6 +66,11 @@ export const productService = {
     const response = await apiClient.put<ProductApi>(`/products/${id}`, mapProductToPayload(product));
     return mapApiToProduct(response);
   },
+  // Stock is set on its own endpoint, saving a product never touches it
+  async setInventory(id: number, inventory: number): Promise<Product> {
+    const response = await apiClient.patch<ProductApi>(`/products/${id}/inventory?inventory=${inventory}`);
+    return mapApiToProduct(response);
+  },
   async delete(id: number): Promise<void> {
     await apiClient.delete(`/products/${id}`);
   },
@@ -1,4 +1,4 @@
-import { apiClient } from "./apiClient";
+import { apiClient, type Page } from "./apiClient";
 import type { User } from "@/types/user";
 
 const normalizeUser = (user: User): User => ({
@@ -7,9 +7,9 @@ const normalizeUser = (user: User): User => ({
 });
 
 export const userService = {
-  async getAll(): Promise<User[]> {
-    const users = await apiClient.get<User[]>("/users");
-    return users.map(normalizeUser);
+  async getPage(page: number, size: number): Promise<Page<User>> {
+    const users = await apiClient.getPage<User>("/users", page, size);
+    return { ...users, items: users.items.map(normalizeUser) };
   },
 
   async getById(id: number): Promise<User> {
@@ -59,6 +59,8 @@ export interface ProductFormValues {
   price: number;
   discount?: number;
   inventory: number;
+  // stock when the form was filled, it is only sent when the user changed it
+  initialInventory?: number;
   imageUrl?: string;
   categoryId?: number | null;
 }